@@ -0,0 +1,72 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pricing a large batch of trips one {@code getQuotation} call at a time with the array based
+ * {@link BatchQuotationCalculator}, sequentially and in parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector",
+        "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class BatchQuotationBenchmark {
+
+    @Param({"50"})
+    int destinationCount;
+
+    @Param({"10000", "1000000"})
+    int batchSize;
+
+    TravelAgencyEngine engine;
+    BatchQuotationCalculator calculator;
+    String[] destinations;
+    int[] destinationIds;
+    int[] days;
+    int[] people;
+    double[] quotations;
+
+    @Setup
+    public void setUp() {
+        engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), destinationCount, Duration.ZERO);
+        calculator = engine.batchQuotationCalculator();
+        destinations = BenchmarkDestinations.names(destinationCount);
+        destinationIds = new int[batchSize];
+        days = new int[batchSize];
+        people = new int[batchSize];
+        quotations = new double[batchSize];
+        Random random = new Random(42);
+        for (int i = 0; i < batchSize; i++) {
+            destinationIds[i] = random.nextInt(destinationCount);
+            days[i] = random.nextInt(10) + 1;
+            people[i] = random.nextInt(5) + 1;
+        }
+    }
+
+    @Benchmark
+    public double[] singleQuotations() {
+        for (int i = 0; i < batchSize; i++) {
+            quotations[i] = engine.getQuotation(destinations[destinationIds[i]], days[i], people[i]);
+        }
+        return quotations;
+    }
+
+    @Benchmark
+    public double[] batch() {
+        calculator.calculate(destinationIds, days, people, quotations);
+        return quotations;
+    }
+
+    @Benchmark
+    public double[] parallelBatch() {
+        calculator.calculateParallel(destinationIds, days, people, quotations);
+        return quotations;
+    }
+}
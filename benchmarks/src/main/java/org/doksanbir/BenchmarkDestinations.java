@@ -0,0 +1,41 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.stream.IntStream;
+
+/**
+ * Destination names shared by the benchmarks, using the same naming scheme as the travel agencies.
+ */
+public final class BenchmarkDestinations {
+
+    private BenchmarkDestinations() {
+    }
+
+    /**
+     * Creates the names of the given number of destinations.
+     *
+     * @param count The number of destinations.
+     * @return The destination names, {@code Destination_1} to {@code Destination_<count>}.
+     */
+    static String[] names(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "Destination_" + (i + 1))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Per-thread position in the destination array, so every benchmark thread walks through all destinations.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        String next(String[] destinations) {
+            String destination = destinations[index];
+            index = index + 1 == destinations.length ? 0 : index + 1;
+            return destination;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar.
+ * It accepts the regular JMH command-line options and always enables the GC profiler, so every run reports
+ * allocation per operation ({@code gc.alloc.rate.norm}) next to the throughput or latency of the benchmark.
+ * <p>
+ * Examples:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar QuotationBenchmark
+ * java -jar benchmarks/target/benchmarks.jar TravelPageBenchmark -p strategy=virtual-threads,structured -p latencyMs=200
+ * java -jar benchmarks/target/benchmarks.jar WeatherForecastBenchmark -t 16
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,67 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures real network-bound throughput of the {@link HttpWeatherClient} against a {@link LocalWeatherServer}
+ * whose latency is log-normal around {@code latencyMs}. The page benchmarks fetch every destination of a page either
+ * with one asynchronous call per destination or with a single call to the bulk endpoint.
+ * Concurrency of the single lookup is controlled with the JMH thread count, e.g. {@code -t 64}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class HttpWeatherBenchmark {
+
+    @Param({"50", "500"})
+    int destinationCount;
+
+    @Param({"20"})
+    long latencyMs;
+
+    @Param({"0.5"})
+    double sigma;
+
+    String[] destinations;
+    LocalWeatherServer server;
+    HttpWeatherClient client;
+
+    @Setup
+    public void setUp() {
+        destinations = BenchmarkDestinations.names(destinationCount);
+        server = new LocalWeatherServer(LatencyDistribution.logNormal(Duration.ofMillis(latencyMs), sigma), 0.0);
+        client = new HttpWeatherClient(server.baseUrl());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String singleLookup(BenchmarkDestinations.Cursor cursor) {
+        return client.fetchForecast(cursor.next(destinations));
+    }
+
+    @Benchmark
+    public Object pagePerDestination() {
+        CompletableFuture<?>[] forecasts = Arrays.stream(destinations)
+                .map(client::fetchForecastAsync)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(forecasts).join();
+    }
+
+    @Benchmark
+    public Object pageBulk() {
+        return client.fetchForecasts(Arrays.asList(destinations));
+    }
+}
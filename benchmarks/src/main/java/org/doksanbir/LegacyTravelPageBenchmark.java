@@ -0,0 +1,48 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the complete {@code displayTravelPage} of each travel agency as it ships: 50 destinations and a 200 ms
+ * simulated weather call. The agencies shut their executors down after one page, so every invocation
+ * uses a fresh agency.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class LegacyTravelPageBenchmark {
+
+    @Benchmark
+    public void imperative() {
+        new ImperativeTravelAgency().displayTravelPage();
+    }
+
+    @Benchmark
+    public void threaded() {
+        new ThreadedTravelAgency().displayTravelPage();
+    }
+
+    @Benchmark
+    public void async() {
+        new AsyncTravelAgency().displayTravelPage();
+    }
+
+    @Benchmark
+    public void parallel() {
+        new ParallelTravelAgency().displayTravelPage();
+    }
+
+    @Benchmark
+    public void advancedConcurrent() {
+        new AdvancedConcurrentTravelAgency().displayTravelPage();
+    }
+
+    @Benchmark
+    public void virtualThread() {
+        new VirtualThreadTravelAgency().displayTravelPage();
+    }
+}
@@ -0,0 +1,74 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the logging of one task of {@link VirtualThreadTravelAgency}, four info lines, from many threads at once.
+ * {@code sync} is slf4j-simple writing every line on the calling thread; {@code async-block} and {@code async-drop}
+ * hand the lines to an {@link AsyncLogging} pipeline with the respective overflow policy. Both write to a temporary
+ * file, since a console would measure the terminal instead of the logging.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dorg.slf4j.simpleLogger.defaultLogLevel=info"})
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    @Param({"sync", "async-block", "async-drop"})
+    String mode;
+
+    String[] destinations;
+    Path logFile;
+    AsyncLogging asyncLogging;
+    Logger log;
+
+    @Setup
+    public void setUp() throws IOException {
+        destinations = BenchmarkDestinations.names(50);
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+        // slf4j-simple reads its configuration when the first logger is created
+        System.setProperty("org.slf4j.simpleLogger.logFile", logFile.toString());
+        Logger delegate = LoggerFactory.getLogger(LoggingBenchmark.class);
+        if (mode.equals("sync")) {
+            log = delegate;
+        } else {
+            AsyncLogging.OverflowPolicy policy = mode.equals("async-drop")
+                    ? AsyncLogging.OverflowPolicy.DROP
+                    : AsyncLogging.OverflowPolicy.BLOCK;
+            PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(logFile.toFile())), false);
+            asyncLogging = new AsyncLogging(AsyncLogging.DEFAULT_CAPACITY, policy, out);
+            log = asyncLogging.logger(delegate);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (asyncLogging != null) {
+            asyncLogging.close();
+        }
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public void logTask(BenchmarkDestinations.Cursor cursor) {
+        String destination = cursor.next(destinations);
+        long threadId = Thread.currentThread().threadId();
+        log.info("Virtual Task for destination: {} started on thread: {}", destination, threadId);
+        log.info("Fetching weather forecast for destination: {}", destination);
+        log.info("Virtual Task completed for destination: {} in {} ns", destination, 1_000L);
+        log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}", destination, "Sunny", 3, 2, 600.0);
+    }
+}
@@ -0,0 +1,81 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a single quotation in every travel agency.
+ * The destination changes on every call so the JIT cannot constant-fold the destination hash.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class QuotationBenchmark {
+
+    private static final int DAYS = 5;
+    private static final int PEOPLE = 2;
+
+    @Param({"50", "5000"})
+    int destinationCount;
+
+    String[] destinations;
+    ImperativeTravelAgency imperativeAgency;
+    ThreadedTravelAgency threadedAgency;
+    AsyncTravelAgency asyncAgency;
+    ParallelTravelAgency parallelAgency;
+    AdvancedConcurrentTravelAgency advancedAgency;
+    VirtualThreadTravelAgency virtualThreadAgency;
+    TravelAgencyEngine engine;
+
+    @Setup
+    public void setUp() {
+        destinations = BenchmarkDestinations.names(destinationCount);
+        imperativeAgency = new ImperativeTravelAgency();
+        threadedAgency = new ThreadedTravelAgency();
+        asyncAgency = new AsyncTravelAgency();
+        parallelAgency = new ParallelTravelAgency();
+        advancedAgency = new AdvancedConcurrentTravelAgency();
+        virtualThreadAgency = new VirtualThreadTravelAgency();
+        engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), destinationCount, Duration.ZERO);
+    }
+
+    @Benchmark
+    public double imperative(BenchmarkDestinations.Cursor cursor) {
+        return imperativeAgency.getQuotation(cursor.next(destinations), DAYS, PEOPLE);
+    }
+
+    @Benchmark
+    public double threaded(BenchmarkDestinations.Cursor cursor) {
+        return threadedAgency.getQuotation(cursor.next(destinations), DAYS, PEOPLE);
+    }
+
+    @Benchmark
+    public double async(BenchmarkDestinations.Cursor cursor) {
+        return asyncAgency.getQuotation(cursor.next(destinations), DAYS, PEOPLE);
+    }
+
+    @Benchmark
+    public double parallel(BenchmarkDestinations.Cursor cursor) {
+        return parallelAgency.getQuotation(cursor.next(destinations), DAYS, PEOPLE);
+    }
+
+    @Benchmark
+    public double advancedConcurrent(BenchmarkDestinations.Cursor cursor) {
+        return advancedAgency.getQuotation(cursor.next(destinations), DAYS, PEOPLE);
+    }
+
+    @Benchmark
+    public double virtualThread(BenchmarkDestinations.Cursor cursor) {
+        return virtualThreadAgency.getQuotation(cursor.next(destinations), DAYS, PEOPLE);
+    }
+
+    @Benchmark
+    public double engine(BenchmarkDestinations.Cursor cursor) {
+        return engine.getQuotation(cursor.next(destinations), DAYS, PEOPLE);
+    }
+}
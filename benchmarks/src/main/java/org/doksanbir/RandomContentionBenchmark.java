@@ -0,0 +1,61 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the sampling of a quotation request and the selection of a forecast from many threads at once.
+ * {@code sharedRandom} is the static {@link Random} the agencies used to share between their workers,
+ * {@code randomPerCall} the two {@code new Random()} per task of the virtual-thread agency and {@code requestSampler}
+ * the per-thread {@link java.util.SplittableRandom} of {@link RequestSampler}. The forecast benchmarks compare the
+ * seeded {@code Random} per call with the allocation-free {@link ForecastSelector}, whose difference shows in
+ * {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview"})
+@Threads(8)
+@State(Scope.Benchmark)
+public class RandomContentionBenchmark {
+
+    String[] destinations;
+    Random sharedRandom;
+    RequestSampler sampler;
+
+    @Setup
+    public void setUp() {
+        destinations = BenchmarkDestinations.names(50);
+        sharedRandom = new Random();
+        sampler = new RequestSampler();
+    }
+
+    @Benchmark
+    public int sharedRandom() {
+        return (sharedRandom.nextInt(10) + 1) * (sharedRandom.nextInt(5) + 1);
+    }
+
+    @Benchmark
+    public int randomPerCall() {
+        return (new Random().nextInt(10) + 1) * (new Random().nextInt(5) + 1);
+    }
+
+    @Benchmark
+    public int requestSampler() {
+        return sampler.sampleDays() * sampler.samplePeople();
+    }
+
+    @Benchmark
+    public String forecastRandomPerCall(BenchmarkDestinations.Cursor cursor) {
+        String[] conditions = SimulatedWeatherClient.WEATHER_CONDITIONS;
+        return conditions[new Random(cursor.next(destinations).hashCode()).nextInt(conditions.length)];
+    }
+
+    @Benchmark
+    public String forecastSelector(BenchmarkDestinations.Cursor cursor) {
+        return ForecastSelector.select(cursor.next(destinations), SimulatedWeatherClient.WEATHER_CONDITIONS);
+    }
+}
@@ -0,0 +1,42 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the destination rate multiplier, i.e. the Fibonacci calculation behind every quotation.
+ * Every travel agency prices through {@link TravelAgencyEngine}, so the engine is the only implementation measured,
+ * next to the bare table lookup of {@link RateMultipliers}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class RateMultiplierBenchmark {
+
+    @Param({"50", "5000"})
+    int destinationCount;
+
+    String[] destinations;
+    TravelAgencyEngine engine;
+
+    @Setup
+    public void setUp() {
+        destinations = BenchmarkDestinations.names(destinationCount);
+        engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), destinationCount, Duration.ZERO);
+    }
+
+    @Benchmark
+    public double table(BenchmarkDestinations.Cursor cursor) {
+        return RateMultipliers.forDestination(cursor.next(destinations));
+    }
+
+    @Benchmark
+    public double engine(BenchmarkDestinations.Cursor cursor) {
+        return engine.getDestinationRateMultiplier(cursor.next(destinations));
+    }
+}
@@ -0,0 +1,52 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the full travel page with the {@link TravelAgencyEngine} on every execution strategy.
+ * Each strategy mirrors the scheduling of one of the travel agencies, so the strategies can be compared on an
+ * identical workload for any destination count, simulated weather latency and pool size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class TravelPageBenchmark {
+
+    @Param({"sequential", "fixed-pool", "fork-join", "completable-future", "virtual-threads", "structured"})
+    String strategy;
+
+    @Param({"50", "500"})
+    int destinationCount;
+
+    @Param({"1", "20"})
+    long latencyMs;
+
+    @Param({"8", "64"})
+    int concurrency;
+
+    ExecutionStrategy executionStrategy;
+    TravelAgencyEngine engine;
+
+    @Setup
+    public void setUp() {
+        executionStrategy = ExecutionStrategies.byName(strategy, concurrency);
+        engine = new TravelAgencyEngine(executionStrategy, destinationCount, Duration.ofMillis(latencyMs));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executionStrategy.close();
+    }
+
+    @Benchmark
+    public List<DestinationResult> renderTravelPage() {
+        return engine.renderTravelPage();
+    }
+}
@@ -0,0 +1,58 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar quotation kernel with the SIMD {@link VectorQuotationKernel} on the same batch.
+ * Both kernels multiply the daily rates in place, so every invocation starts from a fresh copy of the rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector",
+        "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class VectorQuotationBenchmark {
+
+    @Param({"1024", "65536", "1000000"})
+    int batchSize;
+
+    double[] dailyRates;
+    int[] days;
+    int[] people;
+    double[] quotations;
+
+    @Setup
+    public void setUp() {
+        TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), 50, Duration.ZERO);
+        dailyRates = new double[batchSize];
+        days = new int[batchSize];
+        people = new int[batchSize];
+        quotations = new double[batchSize];
+        Random random = new Random(42);
+        for (int i = 0; i < batchSize; i++) {
+            dailyRates[i] = engine.getDailyRate("Destination_" + (random.nextInt(50) + 1));
+            days[i] = random.nextInt(10) + 1;
+            people[i] = random.nextInt(5) + 1;
+        }
+    }
+
+    @Benchmark
+    public double[] scalar() {
+        System.arraycopy(dailyRates, 0, quotations, 0, batchSize);
+        BatchQuotationCalculator.multiply(quotations, days, people, 0, batchSize);
+        return quotations;
+    }
+
+    @Benchmark
+    public double[] vector() {
+        System.arraycopy(dailyRates, 0, quotations, 0, batchSize);
+        VectorQuotationKernel.multiply(quotations, days, people, 0, batchSize);
+        return quotations;
+    }
+}
@@ -0,0 +1,82 @@
+package org.doksanbir;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single weather forecast lookup in every travel agency.
+ * The legacy agencies always simulate a 200 ms network call; the engine uses the {@code latencyMs} parameter.
+ * Concurrency is controlled with the JMH thread count, e.g. {@code -t 16}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class WeatherForecastBenchmark {
+
+    @Param({"50"})
+    int destinationCount;
+
+    @Param({"200"})
+    long latencyMs;
+
+    String[] destinations;
+    ImperativeTravelAgency imperativeAgency;
+    ThreadedTravelAgency threadedAgency;
+    AsyncTravelAgency asyncAgency;
+    ParallelTravelAgency parallelAgency;
+    AdvancedConcurrentTravelAgency advancedAgency;
+    VirtualThreadTravelAgency virtualThreadAgency;
+    TravelAgencyEngine engine;
+
+    @Setup
+    public void setUp() {
+        destinations = BenchmarkDestinations.names(destinationCount);
+        imperativeAgency = new ImperativeTravelAgency();
+        threadedAgency = new ThreadedTravelAgency();
+        asyncAgency = new AsyncTravelAgency();
+        parallelAgency = new ParallelTravelAgency();
+        advancedAgency = new AdvancedConcurrentTravelAgency();
+        virtualThreadAgency = new VirtualThreadTravelAgency();
+        engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), destinationCount, Duration.ofMillis(latencyMs));
+    }
+
+    @Benchmark
+    public String imperative(BenchmarkDestinations.Cursor cursor) {
+        return imperativeAgency.getWeatherForecast(cursor.next(destinations));
+    }
+
+    @Benchmark
+    public String threaded(BenchmarkDestinations.Cursor cursor) {
+        return threadedAgency.getWeatherForecast(cursor.next(destinations));
+    }
+
+    @Benchmark
+    public String async(BenchmarkDestinations.Cursor cursor) {
+        return asyncAgency.getWeatherForecast(cursor.next(destinations));
+    }
+
+    @Benchmark
+    public String parallel(BenchmarkDestinations.Cursor cursor) {
+        return parallelAgency.getWeatherForecast(cursor.next(destinations));
+    }
+
+    @Benchmark
+    public String advancedConcurrent(BenchmarkDestinations.Cursor cursor) {
+        return advancedAgency.getWeatherForecast(cursor.next(destinations));
+    }
+
+    @Benchmark
+    public String virtualThread(BenchmarkDestinations.Cursor cursor) {
+        return virtualThreadAgency.getWeatherForecast(cursor.next(destinations));
+    }
+
+    @Benchmark
+    public String engine(BenchmarkDestinations.Cursor cursor) {
+        return engine.getWeatherForecast(cursor.next(destinations));
+    }
+}
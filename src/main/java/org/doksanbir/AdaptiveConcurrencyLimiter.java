@@ -0,0 +1,293 @@
+package org.doksanbir;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of concurrent calls to a backend with a limit that adapts to the observed latency,
+ * using additive increase / multiplicative decrease (AIMD), the scheme TCP uses for its congestion window.
+ * <ul>
+ *   <li>Every successful call that was made while the limiter was at least half full raises the limit by one,
+ *   so the limit grows as long as the backend keeps up.</li>
+ *   <li>A failed call, or one slower than {@code latencyTolerance} times the baseline latency, multiplies the limit by
+ *   {@code backoffRatio}. A backend that starts queueing answers slower before it starts failing, so the limiter
+ *   backs off before the overload turns into errors. Like TCP, it backs off at most once per window: calls that were
+ *   already in flight when the limit was lowered do not lower it again.</li>
+ * </ul>
+ * The baseline is the latency of the backend without load: it drops immediately to any faster successful call and
+ * rises only slowly, so a sustained change of the backend is eventually accepted as the new normal. Failed calls do
+ * not change it, as a call failing fast says nothing about the latency of the calls that succeed.
+ * The limit always stays between {@code minLimit} and {@code maxLimit}.
+ * <p>
+ * Callers that find the limiter full wait until a permit is released or the limit grows.
+ * A lock is used instead of synchronized so virtual threads never pin their carrier while waiting.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * The default factor applied to the limit when the backend shows signs of overload.
+     */
+    static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    /**
+     * The default latency, as a multiple of the baseline, above which a call counts as a sign of overload.
+     */
+    static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    /**
+     * The fraction of the gap closed by each slower call when the baseline latency rises.
+     */
+    private static final double BASELINE_DRIFT = 0.001;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final LongSupplier clock;
+
+    /**
+     * Guards {@link #limit}, {@link #inFlight}, {@link #baselineNanos} and {@link #lastDecreaseNanos}.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private double baselineNanos = Double.NaN;
+    private long lastDecreaseNanos;
+    private boolean decreasedBefore;
+
+    private final LongAdder increases = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+
+    /**
+     * Creates a limiter with the default backoff ratio and latency tolerance.
+     *
+     * @param initialLimit The limit before any call has been observed.
+     * @param minLimit     The lowest limit the limiter backs off to.
+     * @param maxLimit     The highest limit the limiter grows to.
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_BACKOFF_RATIO, DEFAULT_LATENCY_TOLERANCE, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                               double latencyTolerance, LongSupplier clock) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < minLimit <= initialLimit <= maxLimit: minLimit="
+                    + minLimit + ", initialLimit=" + initialLimit + ", maxLimit=" + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1: " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.clock = clock;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Waits until a call may start.
+     *
+     * @return The permit of the call, which must be released exactly once when the call has finished.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public Permit acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (inFlight >= (int) limit) {
+                waits.increment();
+                do {
+                    permitAvailable.await();
+                } while (inFlight >= (int) limit);
+            }
+            inFlight++;
+            return new Permit(clock.getAsLong(), inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a call may start, for at most the given time.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return The permit of the call, or {@code null} if none became available in time.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public Permit tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (inFlight >= (int) limit) {
+                waits.increment();
+                do {
+                    if (remainingNanos <= 0) {
+                        return null;
+                    }
+                    remainingNanos = permitAvailable.awaitNanos(remainingNanos);
+                } while (inFlight >= (int) limit);
+            }
+            inFlight++;
+            return new Permit(clock.getAsLong(), inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit, boolean dropped, boolean ignored) {
+        long latencyNanos = clock.getAsLong() - permit.startNanos;
+        lock.lock();
+        try {
+            inFlight--;
+            if (ignored) {
+                permitAvailable.signal();
+                return;
+            }
+            // A failed call may have failed fast, e.g. a refused connection, so only successes tell the baseline
+            if (!dropped) {
+                if (Double.isNaN(baselineNanos) || latencyNanos < baselineNanos) {
+                    baselineNanos = latencyNanos;
+                } else {
+                    baselineNanos += (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+                }
+            }
+            if (dropped || latencyNanos > baselineNanos * latencyTolerance) {
+                boolean startedAfterLastDecrease = !decreasedBefore || permit.startNanos - lastDecreaseNanos >= 0;
+                double decreased = Math.max(minLimit, limit * backoffRatio);
+                if (startedAfterLastDecrease && decreased < limit) {
+                    limit = decreased;
+                    lastDecreaseNanos = clock.getAsLong();
+                    decreasedBefore = true;
+                    decreases.increment();
+                }
+            } else if (permit.inFlightAtStart * 2 >= (int) limit && limit < maxLimit) {
+                limit = Math.min(maxLimit, limit + 1);
+                increases.increment();
+            }
+            if (inFlight < (int) limit) {
+                permitAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return The number of calls currently allowed in flight.
+     */
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of calls in flight.
+     *
+     * @return The number of acquired permits not yet released.
+     */
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of times the limit was raised.
+     *
+     * @return The number of additive increases.
+     */
+    public long increases() {
+        return increases.sum();
+    }
+
+    /**
+     * Returns the number of times the limit was lowered.
+     *
+     * @return The number of multiplicative decreases.
+     */
+    public long decreases() {
+        return decreases.sum();
+    }
+
+    /**
+     * Returns the number of callers that found the limiter full and had to wait.
+     *
+     * @return The number of waiting acquisitions.
+     */
+    public long waits() {
+        return waits.sum();
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return "AdaptiveConcurrencyLimiter[limit=" + (int) limit + ", inFlight=" + inFlight
+                    + ", baselineMs=" + (Double.isNaN(baselineNanos) ? "n/a" : String.format("%.1f", baselineNanos / 1e6))
+                    + ", increases=" + increases.sum() + ", decreases=" + decreases.sum() + ", waits=" + waits.sum() + "]";
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The right to make one call. Its latency, from acquisition to release, adjusts the limit.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit of a call that succeeded; its latency decides whether the limit grows or shrinks.
+         */
+        public void onSuccess() {
+            releaseOnce(false, false);
+        }
+
+        /**
+         * Releases the permit of a call that failed or timed out, which lowers the limit.
+         */
+        public void onDropped() {
+            releaseOnce(true, false);
+        }
+
+        /**
+         * Releases the permit of a call that was cancelled by the caller, which says nothing about the backend and
+         * leaves the limit unchanged.
+         */
+        public void onIgnored() {
+            releaseOnce(false, true);
+        }
+
+        private void releaseOnce(boolean dropped, boolean ignored) {
+            if (released) {
+                throw new IllegalStateException("Permit already released");
+            }
+            released = true;
+            release(this, dropped, ignored);
+        }
+    }
+}
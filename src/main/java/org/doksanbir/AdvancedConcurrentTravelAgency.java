@@ -1,11 +1,12 @@
 package org.doksanbir;
 
-import lombok.extern.slf4j.Slf4j;
+import lombok.CustomLog;
 
-import java.lang.management.GarbageCollectorMXBean;
-import java.lang.management.ManagementFactory;
-import java.util.Random;
-import java.util.concurrent.*;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -20,57 +21,56 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 4. Handle these operations concurrently for multiple destinations
  * 5. Provide performance metrics for the operations
  * This class uses various concurrent programming techniques to achieve these goals efficiently.
+ * The destinations, the pricing and the simulated weather service are those of a {@link TravelAgencyEngine}; this
+ * agency puts a cache, hedging and an adaptive limiter in front of the weather service and schedules the page.
  */
-@Slf4j
-public class AdvancedConcurrentTravelAgency {
+@CustomLog
+public class AdvancedConcurrentTravelAgency implements TravelAgency {
 
     /**
-     * The number of travel destinations available.
-     * This determines the size of the destination list.
+     * The number of concurrent weather forecast operations allowed before any call has been observed.
      */
-    private static final int DESTINATION_COUNT = 50;
+    private static final int WEATHER_INITIAL_LIMIT = 10;
 
     /**
-     * The base price per day for travel.
-     * This is used as a starting point for quotation calculations.
+     * The lowest number of concurrent weather forecast operations the limiter backs off to.
      */
-    private static final double BASE_RATE = 100.0;
+    private static final int WEATHER_MIN_LIMIT = 1;
 
     /**
-     * The number of permits for the weather forecast semaphore.
-     * This limits the number of concurrent weather forecast operations.
+     * The highest number of concurrent weather forecast operations the limiter grows to.
      */
-    private static final int WEATHER_SEMAPHORE_PERMITS = 10;
+    private static final int WEATHER_MAX_LIMIT = 200;
 
     /**
-     * The delay in milliseconds used to simulate network calls.
-     * This adds realism to the weather forecast fetching operation.
+     * The maximum number of destinations kept in the weather cache.
      */
-    private static final int NETWORK_CALL_DELAY = 200;
+    private static final int WEATHER_CACHE_MAX_ENTRIES = 1_000;
 
     /**
-     * A map containing the weather forecast for each destination.
-     * This cache helps avoid redundant weather forecast fetches.
+     * How long a cached weather forecast stays valid.
      */
-    private static final ConcurrentMap<String, String> destinationWeather = new ConcurrentHashMap<>();
+    private static final Duration WEATHER_CACHE_TTL = Duration.ofMinutes(10);
 
     /**
-     * A list containing names of all travel destinations.
-     * This list is thread-safe and allows for concurrent access.
+     * The latency budget of the travel page. Destinations that are not ready by then are shown with fallback values.
      */
-    private static final CopyOnWriteArrayList<String> destinations = new CopyOnWriteArrayList<>();
+    private static final Duration PAGE_BUDGET = PageDeadline.DEFAULT_PAGE_BUDGET;
 
     /**
-     * A semaphore to limit the number of concurrent weather forecast requests.
-     * This prevents overloading of the simulated weather service.
+     * An adaptive limiter of the number of concurrent weather forecast requests.
+     * The limit grows while the simulated weather service answers at its usual speed and shrinks when it slows down
+     * or fails, which prevents overloading it without hand-tuning a fixed number of permits.
      */
-    private static final Semaphore weatherSemaphore = new Semaphore(WEATHER_SEMAPHORE_PERMITS);
+    private final AdaptiveConcurrencyLimiter weatherLimiter =
+            new AdaptiveConcurrencyLimiter(WEATHER_INITIAL_LIMIT, WEATHER_MIN_LIMIT, WEATHER_MAX_LIMIT);
 
     /**
      * A thread pool to process quotation and weather forecast requests.
      * This allows for efficient handling of multiple concurrent operations.
+     * Each agency owns its pool, which is shut down once its travel page has been displayed.
      */
-    private static final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
 
     /**
      * A counter to keep track of the number of quotations processed.
@@ -79,27 +79,32 @@ public class AdvancedConcurrentTravelAgency {
     private final AtomicInteger quotationCounter = new AtomicInteger();
 
     /**
-     * A Random object used for generating random values.
+     * A counter of the destinations shown with a fallback value because they missed the page deadline.
      */
-    private static final Random random = new Random();
+    private final AtomicInteger degradedCounter = new AtomicInteger();
 
     /**
-     * An array containing possible weather conditions.
-     * This is used to generate random weather forecasts.
+     * Hedges slow weather forecast calls: a call still running after the p95 of recent latencies gets a backup call,
+     * and the first one to answer wins. Both calls count against the limiter.
      */
-    private static final String[] WEATHER_CONDITIONS = {
-            "Sunny", "Cloudy", "Rainy", "Stormy", "Snowy", "Windy", "Foggy", "Icy"
-    };
+    private final HedgingWeatherClient weatherHedging =
+            new HedgingWeatherClient(new LimitingWeatherClient(
+                    new SimulatedWeatherClient(TravelAgencyEngine.DEFAULT_NETWORK_CALL_DELAY), weatherLimiter));
 
     /**
-     * Initializes the list of destinations.
-     * This static block populates the destinations list when the class is loaded.
+     * A cache containing the weather forecast for each destination.
+     * This cache helps avoid redundant weather forecast fetches while keeping memory bounded:
+     * entries expire after {@link #WEATHER_CACHE_TTL} and the least recently used destinations are evicted first.
+     * It stores futures, so concurrent requests for a destination share one fetch that runs outside any lock.
      */
-    static {
-        for (int i = 0; i < DESTINATION_COUNT; i++) {
-            destinations.add("Destination_" + (i + 1));
-        }
-    }
+    private final CachingWeatherClient destinationWeather = new CachingWeatherClient(
+            weatherHedging, WEATHER_CACHE_TTL, WEATHER_CACHE_MAX_ENTRIES);
+
+    /**
+     * The engine providing the destinations, the trips and the pricing, and forecasting through the weather cache.
+     */
+    private final TravelAgencyEngine engine = new TravelAgencyEngine(new CompletableFutureExecutionStrategy(executorService),
+            TravelAgencyEngine.DEFAULT_DESTINATION_COUNT, destinationWeather, PAGE_BUDGET);
 
     /**
      * Calculates a quotation for a trip to the specified destination.
@@ -109,39 +114,10 @@ public class AdvancedConcurrentTravelAgency {
      * @param people      The number of people traveling.
      * @return The calculated quotation for the trip.
      */
+    @Override
     public double getQuotation(String destination, int days, int people) {
         log.info("Calculating quotation for destination: {}", destination);
-        double rate = BASE_RATE * (1 + getDestinationRateMultiplier(destination));
-        return rate * days * people;
-    }
-
-    /**
-     * Calculates a rate multiplier for a given destination.
-     * This method uses a Fibonacci sequence to add variability to the rates.
-     *
-     * @param destination The name of the travel destination.
-     * @return A rate multiplier based on the destination's hash code.
-     */
-    private double getDestinationRateMultiplier(String destination) {
-        log.info("Calculating destination rate multiplier for destination: {}", destination);
-        return fibonacci(Math.abs(destination.hashCode()) % 30);
-    }
-
-    /**
-     * Calculates the nth Fibonacci number iteratively.
-     *
-     * @param n The index of the Fibonacci number to calculate.
-     * @return The nth Fibonacci number.
-     */
-    private double fibonacci(int n) {
-        if (n <= 1) return n;
-        double[] fib = new double[n + 1];
-        fib[0] = 0;
-        fib[1] = 1;
-        for (int i = 2; i <= n; i++) {
-            fib[i] = fib[i - 1] + fib[i - 2];
-        }
-        return fib[n];
+        return engine.getQuotation(destination, days, people);
     }
 
     /**
@@ -167,156 +143,93 @@ public class AdvancedConcurrentTravelAgency {
      *
      * @param destination The name of the travel destination.
      * @return The weather forecast for the destination.
-     * @throws InterruptedException if the thread is interrupted while waiting for the semaphore.
      */
-    public String getWeatherForecast(String destination) throws InterruptedException {
+    @Override
+    public String getWeatherForecast(String destination) {
         log.info("Fetching weather forecast for destination: {}", destination);
-        return destinationWeather.computeIfAbsent(destination, this::fetchWeatherForecastWithSemaphore);
+        return engine.getWeatherForecast(destination);
     }
 
     /**
-     * Fetches the weather forecast for a destination, using a semaphore to limit concurrent requests.
+     * Retrieves the weather forecast for a given destination without blocking the caller.
+     * The cache entry is created instantly and the fetch runs outside of any map lock, so a slow fetch never delays
+     * lookups of other destinations.
      *
      * @param destination The name of the travel destination.
-     * @return The weather forecast for the destination.
+     * @return A CompletableFuture that will contain the weather forecast for the destination.
      */
-    private String fetchWeatherForecastWithSemaphore(String destination) {
-        try {
-            weatherSemaphore.acquire();
-            return fetchWeatherForecast(destination);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Thread was interrupted while acquiring semaphore", e);
-            return "N/A";
-        } finally {
-            weatherSemaphore.release();
-        }
-    }
-
-    /**
-     * Simulates fetching a weather forecast from an external service.
-     *
-     * @param destination The name of the travel destination.
-     * @return A randomly selected weather condition for the destination.
-     */
-    private String fetchWeatherForecast(String destination) {
-        log.info("Actually fetching weather forecast for destination: {}", destination);
-        simulateNetworkCall();
-        Random random = new Random(destination.hashCode());
-        return WEATHER_CONDITIONS[random.nextInt(WEATHER_CONDITIONS.length)];
-    }
-
-    /**
-     * Simulates a network call by introducing a delay.
-     */
-    private void simulateNetworkCall() {
-        try {
-            Thread.sleep(NETWORK_CALL_DELAY);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Thread was interrupted during simulateNetworkCall", e);
-        }
+    public CompletableFuture<String> getWeatherForecastAsync(String destination) {
+        log.info("Asynchronously fetching weather forecast for destination: {}", destination);
+        return destinationWeather.fetchForecastAsync(destination);
     }
 
     /**
      * Processes all destinations concurrently, fetching weather forecasts and quotations.
-     *
-     * @throws InterruptedException if the thread is interrupted while waiting for operations to complete.
-     */
-    public void displayTravelPage() throws InterruptedException {
-        PerformanceMetrics metrics = startPerformanceTracking();
-
-        CompletableFuture<?>[] futures = destinations.stream()
-                .map(this::processDestination)
-                .toArray(CompletableFuture[]::new);
+     * The page is displayed within {@link #PAGE_BUDGET}: destinations whose weather or quotation is not ready by then
+     * are shown with a fallback value, and the outstanding work is cancelled.
+     */
+    @Override
+    public void displayTravelPage() {
+        PerformanceTracker tracker = PerformanceTracker.start();
+        PageDeadline deadline = PageDeadline.after(PAGE_BUDGET);
+
+        List<TravelRequest> trips = engine.planTrips();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[trips.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = processDestination(trips.get(i), deadline);
+        }
 
         CompletableFuture.allOf(futures).join();
-        executorService.shutdown();
-        logPerformanceMetrics(metrics);
+        executorService.shutdownNow();
+        destinationWeather.close();
+        weatherHedging.close();
+        logPerformanceMetrics(tracker);
     }
 
-
-
     /**
-     * Processes a single destination, fetching its weather forecast and a quotation.
+     * Processes a single trip, fetching its weather forecast and a quotation.
      *
-     * @param destination The name of the travel destination.
-     * @return A CompletableFuture representing the completion of the processing.
-     */
-    private CompletableFuture<Void> processDestination(String destination) {
-        int days = random.nextInt(10) + 1;
-        int people = random.nextInt(5) + 1;
-        return CompletableFuture.runAsync(() -> {
-            try {
-                String weather = getWeatherForecast(destination);
-                double quotation = getQuotationAsync(destination, days, people).get();
-                log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}",
-                        destination, weather, days, people, quotation);
-            } catch (InterruptedException | ExecutionException e) {
-                log.error("Error processing destination: {}", destination, e);
-                Thread.currentThread().interrupt();
-            }
-        }, executorService);
-    }
-
-    /**
-     * Starts tracking performance metrics for the travel page display operation.
+     * The weather forecast and the quotation are each bounded by the page deadline and replaced by their fallback
+     * value if they are late or fail.
      *
-     * @return A PerformanceMetrics object containing initial metrics.
-     */
-    private PerformanceMetrics startPerformanceTracking() {
-        long startTime = System.currentTimeMillis();
-        long startMemory = getUsedMemory();
-        long startGcDuration = getTotalGCDuration();
-        int initialThreadCount = ManagementFactory.getThreadMXBean().getThreadCount();
-        return new PerformanceMetrics(startTime, startMemory, startGcDuration, initialThreadCount);
-    }
-
-    /**
-     * Logs the performance metrics for the travel page display operation.
+     * @param trip     The trip to the destination.
+     * @param deadline The deadline of the travel page.
+     * @return A CompletableFuture representing the completion of the processing, completed by the deadline.
+     */
+    private CompletableFuture<Void> processDestination(TravelRequest trip, PageDeadline deadline) {
+        String destination = trip.destination();
+        int days = trip.days();
+        int people = trip.people();
+        CompletableFuture<String> weatherFuture =
+                deadline.bound(getWeatherForecastAsync(destination), DestinationResult.FALLBACK_WEATHER);
+        CompletableFuture<Double> quotationFuture =
+                deadline.bound(getQuotationAsync(destination, days, people), DestinationResult.FALLBACK_QUOTATION);
+        return weatherFuture
+                .thenAcceptBoth(quotationFuture, (weather, quotation) -> {
+                    if (DestinationResult.FALLBACK_WEATHER.equals(weather) || Double.isNaN(quotation)) {
+                        degradedCounter.incrementAndGet();
+                    }
+                    log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}",
+                            destination, weather, days, people, quotation);
+                })
+                .exceptionally(e -> {
+                    log.error("Error processing destination: {}", destination, e);
+                    return null;
+                });
+    }
+
+    /**
+     * Logs the performance metrics of the travel page display operation, followed by those of the weather stack.
      *
-     * @param metrics The initial performance metrics.
+     * @param tracker The tracker started with the operation.
      */
-    private void logPerformanceMetrics(PerformanceMetrics metrics) {
-        long endTime = System.currentTimeMillis();
-        long endMemory = getUsedMemory();
-        long endGcDuration = getTotalGCDuration();
-        int finalThreadCount = ManagementFactory.getThreadMXBean().getThreadCount();
-
-        log.info("Execution time: {} ms", (endTime - metrics.startTime()));
-        log.info("Used memory before: {} bytes", metrics.startMemory());
-        log.info("Used memory after: {} bytes", endMemory);
-        log.info("Memory used by operation: {} bytes", (endMemory - metrics.startMemory()));
-        log.info("Total garbage collection time: {} ms", (endGcDuration - metrics.startGcDuration()));
-        log.info("Initial thread count: {}", metrics.initialThreadCount());
-        log.info("Final thread count: {}", finalThreadCount);
+    private void logPerformanceMetrics(PerformanceTracker tracker) {
+        tracker.logPerformanceMetrics();
         log.info("Total quotations processed: {}", quotationCounter.get());
-    }
-
-    /**
-     * Calculates the amount of memory currently being used by the JVM.
-     *
-     * @return The amount of used memory in bytes.
-     */
-    private static long getUsedMemory() {
-        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
-    }
-
-    /**
-     * Calculates the total duration of garbage collection operations.
-     *
-     * @return The total garbage collection time in milliseconds.
-     */
-    private static long getTotalGCDuration() {
-        return ManagementFactory.getGarbageCollectorMXBeans().stream()
-                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
-                .sum();
-    }
-
-    /**
-         * Represents performance metrics for the travel page display operation.
-         */
-        private record PerformanceMetrics(long startTime, long startMemory, long startGcDuration, int initialThreadCount) {
+        log.info("Destinations degraded by the {} ms page deadline: {}", PAGE_BUDGET.toMillis(), degradedCounter.get());
+        log.info("Weather cache: {}", destinationWeather.stats());
+        log.info("Weather limiter: {}", weatherLimiter);
+        log.info("Weather hedging: {}", weatherHedging);
     }
 
     /**
@@ -327,12 +240,7 @@ public class AdvancedConcurrentTravelAgency {
     public static void main(String[] args) {
         log.info("Starting travel agency application");
         AdvancedConcurrentTravelAgency agency = new AdvancedConcurrentTravelAgency();
-        try {
-            agency.displayTravelPage();
-        } catch (InterruptedException e) {
-            log.error("Error occurred", e);
-            Thread.currentThread().interrupt();
-        }
+        agency.displayTravelPage();
         log.info("Exiting travel agency application");
     }
 }
\ No newline at end of file
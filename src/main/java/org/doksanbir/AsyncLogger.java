@@ -0,0 +1,221 @@
+package org.doksanbir;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.MarkerIgnoringBase;
+
+/**
+ * An slf4j logger that hands its messages to an {@link AsyncLogging} pipeline instead of writing them itself.
+ * Whether a level is enabled is decided by the delegate, so the usual slf4j-simple configuration still applies.
+ */
+class AsyncLogger extends MarkerIgnoringBase {
+
+    private final AsyncLogging logging;
+    private final Logger delegate;
+
+    AsyncLogger(AsyncLogging logging, Logger delegate) {
+        this.logging = logging;
+        this.delegate = delegate;
+        this.name = delegate.getName();
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return delegate.isTraceEnabled();
+    }
+
+    @Override
+    public void trace(String msg) {
+        if (delegate.isTraceEnabled()) {
+            logging.publish(Level.TRACE, name, msg, 0, null, null, null, null);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object arg) {
+        if (delegate.isTraceEnabled()) {
+            logging.publish(Level.TRACE, name, format, 1, arg, null, null, null);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object arg1, Object arg2) {
+        if (delegate.isTraceEnabled()) {
+            logging.publish(Level.TRACE, name, format, 2, arg1, arg2, null, null);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object... arguments) {
+        if (delegate.isTraceEnabled()) {
+            logging.publish(Level.TRACE, name, format, arguments.length, null, null, arguments, null);
+        }
+    }
+
+    @Override
+    public void trace(String msg, Throwable t) {
+        if (delegate.isTraceEnabled()) {
+            logging.publish(Level.TRACE, name, msg, 0, null, null, null, t);
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(String msg) {
+        if (delegate.isDebugEnabled()) {
+            logging.publish(Level.DEBUG, name, msg, 0, null, null, null, null);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object arg) {
+        if (delegate.isDebugEnabled()) {
+            logging.publish(Level.DEBUG, name, format, 1, arg, null, null, null);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object arg1, Object arg2) {
+        if (delegate.isDebugEnabled()) {
+            logging.publish(Level.DEBUG, name, format, 2, arg1, arg2, null, null);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object... arguments) {
+        if (delegate.isDebugEnabled()) {
+            logging.publish(Level.DEBUG, name, format, arguments.length, null, null, arguments, null);
+        }
+    }
+
+    @Override
+    public void debug(String msg, Throwable t) {
+        if (delegate.isDebugEnabled()) {
+            logging.publish(Level.DEBUG, name, msg, 0, null, null, null, t);
+        }
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled();
+    }
+
+    @Override
+    public void info(String msg) {
+        if (delegate.isInfoEnabled()) {
+            logging.publish(Level.INFO, name, msg, 0, null, null, null, null);
+        }
+    }
+
+    @Override
+    public void info(String format, Object arg) {
+        if (delegate.isInfoEnabled()) {
+            logging.publish(Level.INFO, name, format, 1, arg, null, null, null);
+        }
+    }
+
+    @Override
+    public void info(String format, Object arg1, Object arg2) {
+        if (delegate.isInfoEnabled()) {
+            logging.publish(Level.INFO, name, format, 2, arg1, arg2, null, null);
+        }
+    }
+
+    @Override
+    public void info(String format, Object... arguments) {
+        if (delegate.isInfoEnabled()) {
+            logging.publish(Level.INFO, name, format, arguments.length, null, null, arguments, null);
+        }
+    }
+
+    @Override
+    public void info(String msg, Throwable t) {
+        if (delegate.isInfoEnabled()) {
+            logging.publish(Level.INFO, name, msg, 0, null, null, null, t);
+        }
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(String msg) {
+        if (delegate.isWarnEnabled()) {
+            logging.publish(Level.WARN, name, msg, 0, null, null, null, null);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object arg) {
+        if (delegate.isWarnEnabled()) {
+            logging.publish(Level.WARN, name, format, 1, arg, null, null, null);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object arg1, Object arg2) {
+        if (delegate.isWarnEnabled()) {
+            logging.publish(Level.WARN, name, format, 2, arg1, arg2, null, null);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object... arguments) {
+        if (delegate.isWarnEnabled()) {
+            logging.publish(Level.WARN, name, format, arguments.length, null, null, arguments, null);
+        }
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        if (delegate.isWarnEnabled()) {
+            logging.publish(Level.WARN, name, msg, 0, null, null, null, t);
+        }
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return delegate.isErrorEnabled();
+    }
+
+    @Override
+    public void error(String msg) {
+        if (delegate.isErrorEnabled()) {
+            logging.publish(Level.ERROR, name, msg, 0, null, null, null, null);
+        }
+    }
+
+    @Override
+    public void error(String format, Object arg) {
+        if (delegate.isErrorEnabled()) {
+            logging.publish(Level.ERROR, name, format, 1, arg, null, null, null);
+        }
+    }
+
+    @Override
+    public void error(String format, Object arg1, Object arg2) {
+        if (delegate.isErrorEnabled()) {
+            logging.publish(Level.ERROR, name, format, 2, arg1, arg2, null, null);
+        }
+    }
+
+    @Override
+    public void error(String format, Object... arguments) {
+        if (delegate.isErrorEnabled()) {
+            logging.publish(Level.ERROR, name, format, arguments.length, null, null, arguments, null);
+        }
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        if (delegate.isErrorEnabled()) {
+            logging.publish(Level.ERROR, name, msg, 0, null, null, null, t);
+        }
+    }
+}
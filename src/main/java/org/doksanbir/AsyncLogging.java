@@ -0,0 +1,406 @@
+package org.doksanbir;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An asynchronous logging pipeline for the hot paths of the travel agencies.
+ * With slf4j-simple every {@code log.info} formats the message and writes it to stderr on the calling thread, so
+ * thousands of tasks logging a few lines each spend most of their time formatting and waiting for the console.
+ * Here the calling thread only stores the message template and its arguments in a slot of a preallocated ring buffer
+ * (arguments that are not immutable values are turned into text first, so the message shows their state at the log
+ * call); a single writer thread takes the messages in batches, formats them and writes each batch to the output with
+ * one write and one flush. When the buffer is full the {@link OverflowPolicy} decides whether the caller waits or the
+ * message is dropped.
+ * <p>
+ * The agencies get their loggers from {@link #getLogger(Class)} through Lombok's {@code @CustomLog}, configured in
+ * {@code lombok.config}. The shared pipeline writes to stderr in the format of slf4j-simple and honors its log levels.
+ * It is configured with the {@code travel.log.async} (default {@code true}; {@code false} returns the plain slf4j
+ * loggers), {@code travel.log.capacity} and {@code travel.log.policy} system properties.
+ */
+public class AsyncLogging implements AutoCloseable {
+
+    /**
+     * What happens to a message logged while the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The logging thread waits until the writer has made room, so no message is lost.
+         */
+        BLOCK,
+
+        /**
+         * The message is dropped and counted, so the logging thread never waits for the output.
+         */
+        DROP
+    }
+
+    static final String ASYNC_PROPERTY = "travel.log.async";
+    static final String CAPACITY_PROPERTY = "travel.log.capacity";
+    static final String POLICY_PROPERTY = "travel.log.policy";
+
+    static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * The largest number of messages written with a single write.
+     */
+    private static final int MAX_BATCH = 512;
+
+    private final PrintStream out;
+    private final OverflowPolicy policy;
+    private final Slot[] ring;
+    private final Slot[] batch;
+    private final Thread writer;
+
+    /**
+     * The text of the batch being written, used by the writer thread only.
+     */
+    private final StringBuilder text = new StringBuilder(MAX_BATCH * 128);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition written = lock.newCondition();
+
+    private int head;
+    private int count;
+    private long publishedCount;
+    private long writtenCount;
+    private boolean closed;
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Creates a pipeline with its own writer thread.
+     *
+     * @param capacity The number of messages the ring buffer holds.
+     * @param policy   What happens to a message logged while the buffer is full.
+     * @param out      The stream the messages are written to.
+     */
+    public AsyncLogging(int capacity, OverflowPolicy policy, PrintStream out) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.out = out;
+        this.policy = policy;
+        this.ring = newSlots(capacity);
+        this.batch = newSlots(Math.min(capacity, MAX_BATCH));
+        this.writer = Thread.ofPlatform().name("async-log-writer").daemon().start(this::writeLoop);
+    }
+
+    private static Slot[] newSlots(int size) {
+        Slot[] slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        return slots;
+    }
+
+    /**
+     * Returns a logger of the shared pipeline, or the plain slf4j logger if asynchronous logging is disabled.
+     *
+     * @param type The class the logger is named after.
+     * @return The logger.
+     */
+    public static Logger getLogger(Class<?> type) {
+        Logger delegate = LoggerFactory.getLogger(type);
+        return Shared.INSTANCE != null ? Shared.INSTANCE.logger(delegate) : delegate;
+    }
+
+    /**
+     * Waits until everything logged to the shared pipeline so far has been written.
+     */
+    public static void flushShared() {
+        if (Shared.INSTANCE != null) {
+            Shared.INSTANCE.flush();
+        }
+    }
+
+    /**
+     * Returns a logger writing through this pipeline. Its name and levels are those of the delegate.
+     *
+     * @param delegate The slf4j logger whose name and level configuration are used.
+     * @return The asynchronous logger.
+     */
+    public Logger logger(Logger delegate) {
+        return new AsyncLogger(this, delegate);
+    }
+
+    /**
+     * Stores a message in the ring buffer for the writer thread.
+     * Immutable arguments are kept as they are and only formatted by the writer; the others are snapshotted first.
+     */
+    void publish(Level level, String loggerName, String template, int argCount, Object arg1, Object arg2,
+                 Object[] args, Throwable throwable) {
+        String threadName = Thread.currentThread().getName();
+        arg1 = snapshot(arg1);
+        arg2 = snapshot(arg2);
+        args = snapshot(args);
+        lock.lock();
+        try {
+            while (!closed && count == ring.length) {
+                if (policy == OverflowPolicy.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                Slot slot = new Slot();
+                slot.set(level, loggerName, threadName, template, argCount, arg1, arg2, args, throwable);
+                StringBuilder line = new StringBuilder();
+                format(slot, line);
+                write(line);
+                return;
+            }
+            ring[(head + count) % ring.length].set(level, loggerName, threadName, template, argCount, arg1, arg2, args, throwable);
+            count++;
+            publishedCount++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the argument itself if it is an immutable value, or its text formatted as the writer would format it.
+     * A mutable argument, such as a pool whose statistics are logged, may have changed by the time the writer gets to
+     * the message, so its text is taken by the logging thread. Throwables are kept for their stack trace.
+     */
+    static Object snapshot(Object arg) {
+        if (arg == null || arg instanceof String || arg instanceof Integer || arg instanceof Long
+                || arg instanceof Double || arg instanceof Float || arg instanceof Short || arg instanceof Byte
+                || arg instanceof Boolean || arg instanceof Character || arg instanceof Enum<?>
+                || arg instanceof Throwable) {
+            return arg;
+        }
+        return MessageFormatter.format("{}", arg).getMessage();
+    }
+
+    /**
+     * Snapshots the arguments, copying the array only if one of them is replaced.
+     */
+    private static Object[] snapshot(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        Object[] copy = null;
+        for (int i = 0; i < args.length; i++) {
+            Object arg = snapshot(args[i]);
+            if (arg != args[i]) {
+                if (copy == null) {
+                    copy = args.clone();
+                }
+                copy[i] = arg;
+            }
+        }
+        return copy != null ? copy : args;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            int taken;
+            lock.lock();
+            try {
+                while (count == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                taken = Math.min(count, batch.length);
+                for (int i = 0; i < taken; i++) {
+                    Slot slot = ring[head];
+                    batch[i].copyFrom(slot);
+                    slot.clear();
+                    head = (head + 1) % ring.length;
+                }
+                count -= taken;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            for (int i = 0; i < taken; i++) {
+                format(batch[i], text);
+                batch[i].clear();
+            }
+            write(text);
+
+            lock.lock();
+            try {
+                writtenCount += taken;
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Appends the message to the text in the format of slf4j-simple:
+     * {@code [thread] LEVEL logger - message}, followed by the stack trace of the throwable, if any.
+     */
+    private static void format(Slot slot, StringBuilder text) {
+        FormattingTuple tuple = switch (slot.argCount) {
+            case 0 -> new FormattingTuple(slot.template);
+            case 1 -> MessageFormatter.format(slot.template, slot.arg1);
+            case 2 -> MessageFormatter.format(slot.template, slot.arg1, slot.arg2);
+            default -> MessageFormatter.arrayFormat(slot.template, slot.args);
+        };
+        text.append('[').append(slot.threadName).append("] ")
+                .append(slot.level.name()).append(' ')
+                .append(slot.loggerName).append(" - ")
+                .append(tuple.getMessage()).append(System.lineSeparator());
+        Throwable throwable = slot.throwable != null ? slot.throwable : tuple.getThrowable();
+        if (throwable != null) {
+            StringWriter stackTrace = new StringWriter();
+            throwable.printStackTrace(new PrintWriter(stackTrace));
+            text.append(stackTrace);
+        }
+    }
+
+    private void write(StringBuilder text) {
+        out.print(text);
+        out.flush();
+        text.setLength(0);
+    }
+
+    /**
+     * Waits until every message published before this call has been written.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            long target = publishedCount;
+            while (writtenCount < target && writer.isAlive()) {
+                written.awaitNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of messages dropped because the buffer was full.
+     *
+     * @return The number of dropped messages.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of messages written so far.
+     *
+     * @return The number of written messages.
+     */
+    public long written() {
+        lock.lock();
+        try {
+            return writtenCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the messages still in the buffer and stops the writer thread.
+     * Messages logged afterwards are written directly by the logging thread.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long droppedMessages = dropped();
+        if (droppedMessages > 0) {
+            out.println("[" + writer.getName() + "] WARN " + AsyncLogging.class.getName() + " - Dropped "
+                    + droppedMessages + " log messages because the buffer was full");
+        }
+        out.flush();
+    }
+
+    /**
+     * The pipeline shared by the loggers of {@link #getLogger(Class)}, created on first use and closed at shutdown.
+     */
+    private static final class Shared {
+
+        static final AsyncLogging INSTANCE = create();
+
+        private static AsyncLogging create() {
+            if (!Boolean.parseBoolean(System.getProperty(ASYNC_PROPERTY, "true"))) {
+                return null;
+            }
+            int capacity = Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY);
+            OverflowPolicy policy = OverflowPolicy.valueOf(
+                    System.getProperty(POLICY_PROPERTY, OverflowPolicy.BLOCK.name()).toUpperCase(Locale.ROOT));
+            AsyncLogging logging = new AsyncLogging(capacity, policy, System.err);
+            Runtime.getRuntime().addShutdownHook(new Thread(logging::close, "async-log-shutdown"));
+            return logging;
+        }
+    }
+
+    /**
+     * A message waiting to be written. Slots are allocated once and reused for every message.
+     */
+    private static final class Slot {
+
+        Level level;
+        String loggerName;
+        String threadName;
+        String template;
+        int argCount;
+        Object arg1;
+        Object arg2;
+        Object[] args;
+        Throwable throwable;
+
+        void set(Level level, String loggerName, String threadName, String template, int argCount, Object arg1,
+                 Object arg2, Object[] args, Throwable throwable) {
+            this.level = level;
+            this.loggerName = loggerName;
+            this.threadName = threadName;
+            this.template = template;
+            this.argCount = argCount;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+            this.args = args;
+            this.throwable = throwable;
+        }
+
+        void copyFrom(Slot other) {
+            set(other.level, other.loggerName, other.threadName, other.template, other.argCount, other.arg1,
+                    other.arg2, other.args, other.throwable);
+        }
+
+        void clear() {
+            set(null, null, null, null, 0, null, null, null, null);
+        }
+    }
+}
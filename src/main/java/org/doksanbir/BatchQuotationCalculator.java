@@ -0,0 +1,142 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Prices large batches of trips at once, for example for the nightly repricing of every
+ * (destination, days, people) tuple.
+ * <p>
+ * The batch is described by parallel primitive arrays: the destination id (the index of the destination in the
+ * list the calculator was created with), the number of days and the number of people of each trip. The daily rate of
+ * every destination is computed once when the calculator is created, so pricing a trip is a table lookup followed by
+ * two multiplications. The pricing loop works on plain arrays without allocation, which lets the JIT unroll and
+ * vectorize it. Large batches can be split across all cores with {@link #calculateParallel}.
+ * <p>
+ * When the JVM is started with {@code --add-modules jdk.incubator.vector}, the arithmetic is done by the SIMD
+ * {@link VectorQuotationKernel}; otherwise, or when {@code -Dtravel.quotation.vector=false} is set, the scalar loop
+ * is used. Both produce identical results.
+ */
+public class BatchQuotationCalculator {
+
+    /**
+     * The system property that can disable the SIMD kernel.
+     */
+    static final String VECTOR_PROPERTY = "travel.quotation.vector";
+
+    /**
+     * Whether the SIMD kernel is used. The Vector API classes are only loaded when its module is present.
+     */
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"));
+
+    /**
+     * The minimum number of trips priced by one parallel chunk. Smaller batches are priced on the calling thread.
+     */
+    static final int PARALLEL_CHUNK_SIZE = 16_384;
+
+    /**
+     * The daily rate of every destination, indexed by destination id.
+     */
+    private final double[] dailyRates;
+
+    /**
+     * Creates a calculator for the given destinations.
+     *
+     * @param destinations The destinations, whose indexes are the destination ids of the batch.
+     * @param dailyRate    The daily rate of a destination for a single person.
+     */
+    public BatchQuotationCalculator(List<String> destinations, ToDoubleFunction<String> dailyRate) {
+        this.dailyRates = destinations.stream().mapToDouble(dailyRate).toArray();
+    }
+
+    /**
+     * Returns the number of destinations known to this calculator.
+     *
+     * @return The number of destination ids.
+     */
+    public int destinationCount() {
+        return dailyRates.length;
+    }
+
+    /**
+     * Calculates the quotation of every trip in the batch on the calling thread.
+     *
+     * @param destinationIds The destination id of each trip.
+     * @param days           The number of days of each trip.
+     * @param people         The number of people of each trip.
+     * @param quotations     The array receiving the quotation of each trip.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public void calculate(int[] destinationIds, int[] days, int[] people, double[] quotations) {
+        checkBatch(destinationIds, days, people, quotations);
+        calculateRange(destinationIds, days, people, quotations, 0, destinationIds.length);
+    }
+
+    /**
+     * Calculates the quotation of every trip in the batch, splitting the batch into chunks priced in parallel
+     * on the common fork-join pool.
+     *
+     * @param destinationIds The destination id of each trip.
+     * @param days           The number of days of each trip.
+     * @param people         The number of people of each trip.
+     * @param quotations     The array receiving the quotation of each trip.
+     * @throws IllegalArgumentException if the arrays do not have the same length.
+     */
+    public void calculateParallel(int[] destinationIds, int[] days, int[] people, double[] quotations) {
+        checkBatch(destinationIds, days, people, quotations);
+        int size = destinationIds.length;
+        int chunks = (size + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+        if (chunks <= 1) {
+            calculateRange(destinationIds, days, people, quotations, 0, size);
+            return;
+        }
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * PARALLEL_CHUNK_SIZE;
+            int to = Math.min(from + PARALLEL_CHUNK_SIZE, size);
+            calculateRange(destinationIds, days, people, quotations, from, to);
+        });
+    }
+
+    /**
+     * Prices the trips in the given range of the batch.
+     * The daily rates are first gathered into the result array and then multiplied in place, so the arithmetic runs
+     * as a separate loop over contiguous arrays which the JIT or the SIMD kernel can vectorize.
+     */
+    private void calculateRange(int[] destinationIds, int[] days, int[] people, double[] quotations, int from, int to) {
+        double[] rates = dailyRates;
+        for (int i = from; i < to; i++) {
+            quotations[i] = rates[destinationIds[i]];
+        }
+        if (VECTORIZED) {
+            VectorQuotationKernel.multiply(quotations, days, people, from, to);
+        } else {
+            multiply(quotations, days, people, from, to);
+        }
+    }
+
+    /**
+     * Multiplies each daily rate by the number of days and people of its trip, in place.
+     * This is the scalar kernel, also used for the tail of the SIMD kernel.
+     *
+     * @param quotations The daily rate of each trip on input, its quotation on output.
+     * @param days       The number of days of each trip.
+     * @param people     The number of people of each trip.
+     * @param from       The first index to price, inclusive.
+     * @param to         The last index to price, exclusive.
+     */
+    static void multiply(double[] quotations, int[] days, int[] people, int from, int to) {
+        for (int i = from; i < to; i++) {
+            quotations[i] = quotations[i] * days[i] * people[i];
+        }
+    }
+
+    private static void checkBatch(int[] destinationIds, int[] days, int[] people, double[] quotations) {
+        int size = destinationIds.length;
+        if (days.length != size || people.length != size || quotations.length != size) {
+            throw new IllegalArgumentException("Batch arrays must have the same length: destinationIds=" + size
+                    + ", days=" + days.length + ", people=" + people.length + ", quotations=" + quotations.length);
+        }
+    }
+}
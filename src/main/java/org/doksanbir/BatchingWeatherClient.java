@@ -0,0 +1,246 @@
+package org.doksanbir;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Groups forecast lookups into micro-batches and sends each batch to the backend with one bulk call
+ * ({@link WeatherClient#fetchForecasts}).
+ * <p>
+ * A lookup joins the pending batch and waits. The batch is dispatched as soon as it holds {@code maxBatchSize}
+ * distinct destinations, or {@code maxDelay} after its first lookup, whichever comes first. Lookups for a destination
+ * that is already pending share its result. Rendering a page of thousands of destinations therefore costs a handful of
+ * round trips instead of one per destination, at the price of up to {@code maxDelay} extra latency for a lone lookup.
+ * <p>
+ * The client owns a timer thread and must be closed when no longer used; closing dispatches whatever is pending.
+ */
+public class BatchingWeatherClient implements WeatherClient, AutoCloseable {
+
+    /**
+     * The default maximum number of destinations per backend call.
+     */
+    static final int DEFAULT_MAX_BATCH_SIZE = 1_000;
+
+    /**
+     * The default time a batch waits for more lookups before it is dispatched.
+     */
+    static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(10);
+
+    private final WeatherClient delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+
+    /**
+     * Fires the time trigger of pending batches.
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Runs the backend calls, so neither the timer nor the lookup that filled a batch waits for them.
+     */
+    private final Executor dispatcher;
+
+    /**
+     * Guards {@link #pending}, {@link #generation} and {@link #closed}.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, CompletableFuture<String>> pending = new LinkedHashMap<>();
+
+    /**
+     * Identifies the pending batch, so a timer firing after its batch was dispatched by size does nothing.
+     */
+    private long generation;
+    private boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+
+    /**
+     * Creates a client with the default batch size and delay.
+     *
+     * @param delegate The client whose bulk endpoint receives the batches.
+     */
+    public BatchingWeatherClient(WeatherClient delegate) {
+        this(delegate, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_DELAY);
+    }
+
+    /**
+     * Creates a client with the given batch triggers.
+     *
+     * @param delegate     The client whose bulk endpoint receives the batches.
+     * @param maxBatchSize The number of distinct destinations that dispatches a batch immediately.
+     * @param maxDelay     The time after its first lookup at which a batch is dispatched regardless of its size.
+     */
+    public BatchingWeatherClient(WeatherClient delegate, int maxBatchSize, Duration maxDelay) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("weather-batch-timer").daemon().factory());
+        this.dispatcher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("weather-batch-", 0).factory());
+    }
+
+    @Override
+    public String fetchForecast(String destination) {
+        return await(fetchForecastAsync(destination));
+    }
+
+    /**
+     * Adds all destinations to the pending batches and waits for their forecasts.
+     * Large collections fill and dispatch batches by size, so only the last partial batch waits for the timer.
+     */
+    @Override
+    public Map<String, String> fetchForecasts(Collection<String> destinations) {
+        Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+        for (String destination : destinations) {
+            futures.computeIfAbsent(destination, this::fetchForecastAsync);
+        }
+        Map<String, String> forecasts = new LinkedHashMap<>();
+        futures.forEach((destination, future) -> forecasts.put(destination, await(future)));
+        return forecasts;
+    }
+
+    /**
+     * Adds the destination to the pending batch without waiting for it.
+     *
+     * @param destination The name of the travel destination.
+     * @return A future completed with the forecast once the batch containing the destination has been fetched.
+     * @throws IllegalStateException if the client is closed, as its timer could no longer dispatch the batch.
+     */
+    public CompletableFuture<String> fetchForecastAsync(String destination) {
+        Map<String, CompletableFuture<String>> batch = null;
+        CompletableFuture<String> forecast;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The batching weather client is closed");
+            }
+            lookups.increment();
+            forecast = pending.get(destination);
+            if (forecast == null) {
+                forecast = new CompletableFuture<>();
+                pending.put(destination, forecast);
+                if (pending.size() >= maxBatchSize) {
+                    batch = takePending();
+                } else if (pending.size() == 1) {
+                    long batchGeneration = generation;
+                    timer.schedule(() -> dispatchByTime(batchGeneration), maxDelayNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+        return forecast;
+    }
+
+    private void dispatchByTime(long batchGeneration) {
+        Map<String, CompletableFuture<String>> batch = null;
+        lock.lock();
+        try {
+            if (generation == batchGeneration && !pending.isEmpty()) {
+                batch = takePending();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Removes the pending batch and starts a new one. Must be called with the lock held.
+     */
+    private Map<String, CompletableFuture<String>> takePending() {
+        Map<String, CompletableFuture<String>> batch = pending;
+        pending = new LinkedHashMap<>();
+        generation++;
+        return batch;
+    }
+
+    /**
+     * Fetches the batch with one backend call and completes the future of every destination in it.
+     * If the call fails, every lookup of the batch fails with the same exception.
+     */
+    private void dispatch(Map<String, CompletableFuture<String>> batch) {
+        batches.increment();
+        dispatcher.execute(() -> {
+            try {
+                Map<String, String> forecasts = delegate.fetchForecasts(batch.keySet());
+                batch.forEach((destination, future) -> {
+                    String forecast = forecasts.get(destination);
+                    if (forecast != null) {
+                        future.complete(forecast);
+                    } else {
+                        future.completeExceptionally(new IllegalStateException("No forecast returned for destination: " + destination));
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                batch.values().forEach(future -> future.completeExceptionally(e));
+            }
+        });
+    }
+
+    private static String await(CompletableFuture<String> forecast) {
+        try {
+            return forecast.get();
+        } catch (ExecutionException e) {
+            throw ExecutionStrategies.propagate(e);
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
+        }
+    }
+
+    /**
+     * Returns the number of backend calls made so far.
+     *
+     * @return The number of dispatched batches.
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * Returns the number of lookups received so far.
+     *
+     * @return The number of lookups, including those sharing a pending destination.
+     */
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * Stops the timer and dispatches the pending batch, if any. Lookups made afterwards are rejected.
+     */
+    @Override
+    public void close() {
+        Map<String, CompletableFuture<String>> batch;
+        lock.lock();
+        try {
+            closed = true;
+            timer.shutdownNow();
+            batch = pending.isEmpty() ? null : takePending();
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.doksanbir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the travel page in a compact binary format, all numbers big-endian:
+ * <pre>
+ * int    magic 'TRVP'
+ * int    format version
+ * int    number of destinations
+ * per destination:
+ *   string destination   (int length in bytes, UTF-8 bytes)
+ *   string weather
+ *   int    days
+ *   int    people
+ *   double quotation     (NaN if not available)
+ *   byte   degraded      (1 if the destination missed the page deadline)
+ * </pre>
+ * Strings are limited to {@value #MAX_STRING_BYTES} bytes: the sink refuses to write longer ones, and
+ * {@link #read(ReadableByteChannel)}, which reads the format back, rejects them and negative counts, so a corrupt file
+ * fails fast instead of exhausting the heap. Since the number of destinations comes first, a page of unknown size can
+ * only be streamed to a seekable channel such as a file, where the count is filled in when the writer is closed.
+ */
+public class BinaryTravelPageSink implements TravelPageSink {
+
+    static final String NAME = "binary";
+
+    static final int MAGIC = 0x54525650;
+    static final int VERSION = 1;
+
+    /**
+     * The longest string, in UTF-8 bytes, written by the sink and accepted by the reader.
+     */
+    static final int MAX_STRING_BYTES = 1 << 16;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void write(TravelPage page, WritableByteChannel channel) throws IOException {
+        ChannelWriter writer = new ChannelWriter(channel);
+        writer.putInt(MAGIC).putInt(VERSION).putInt(page.size());
+        for (DestinationResult result : page.destinations()) {
+            putDestination(writer, result);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Starts writing a page of unknown size. The header is written with a count of zero, which is replaced by the
+     * number of destinations written when the writer is closed.
+     *
+     * @param channel The channel to write to, which must be a {@link SeekableByteChannel}.
+     * @return The writer of the page.
+     * @throws IOException if the channel cannot be written or is not seekable.
+     */
+    @Override
+    public DestinationWriter open(WritableByteChannel channel) throws IOException {
+        if (!(channel instanceof SeekableByteChannel seekable)) {
+            throw new IOException("A binary travel page can only be streamed to a seekable channel");
+        }
+        long countPosition = seekable.position() + 2L * Integer.BYTES;
+        ChannelWriter writer = new ChannelWriter(channel);
+        writer.putInt(MAGIC).putInt(VERSION).putInt(0);
+        return new DestinationWriter() {
+
+            private int count;
+
+            @Override
+            public void write(DestinationResult result) throws IOException {
+                if (count == Integer.MAX_VALUE) {
+                    throw new IOException("A binary travel page holds at most " + Integer.MAX_VALUE + " destinations");
+                }
+                putDestination(writer, result);
+                count++;
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.flush();
+                long end = seekable.position();
+                ByteBuffer countBuffer = ByteBuffer.allocate(Integer.BYTES).putInt(0, count);
+                seekable.position(countPosition);
+                while (countBuffer.hasRemaining()) {
+                    seekable.write(countBuffer);
+                }
+                seekable.position(end);
+            }
+        };
+    }
+
+    private static void putDestination(ChannelWriter writer, DestinationResult result) throws IOException {
+        putString(writer, result.destination());
+        putString(writer, result.weather());
+        writer.putInt(result.days())
+                .putInt(result.people())
+                .putDouble(result.quotation())
+                .putByte(result.degraded() ? 1 : 0);
+    }
+
+    /**
+     * Writes a string as its length and UTF-8 bytes, refusing strings the reader would reject.
+     */
+    private static void putString(ChannelWriter writer, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("String of " + bytes.length + " bytes exceeds the limit of " + MAX_STRING_BYTES
+                    + " bytes: " + value.substring(0, 32) + "...");
+        }
+        writer.putInt(bytes.length).putBytes(bytes);
+    }
+
+    /**
+     * Reads a page written by this sink.
+     *
+     * @param channel The channel to read from.
+     * @return The page.
+     * @throws IOException if the channel cannot be read or does not hold a page in this format.
+     */
+    public static TravelPage read(ReadableByteChannel channel) throws IOException {
+        Reader reader = new Reader(channel);
+        if (reader.getInt() != MAGIC) {
+            throw new IOException("Not a binary travel page");
+        }
+        int version = reader.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported travel page version: " + version);
+        }
+        int count = reader.getInt();
+        if (count < 0) {
+            throw new IOException("Invalid number of destinations: " + count);
+        }
+        // Not presized: the count is only trusted as far as the destinations are actually there
+        List<DestinationResult> destinations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            destinations.add(new DestinationResult(reader.getString(), reader.getString(), reader.getInt(),
+                    reader.getInt(), reader.getDouble(), reader.getByte() != 0));
+        }
+        return new TravelPage(destinations);
+    }
+
+    /**
+     * Buffered reading of the values written by {@link ChannelWriter}.
+     */
+    private static final class Reader {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(ChannelWriter.DEFAULT_BUFFER_SIZE).flip();
+
+        Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Travel page is truncated");
+                }
+            }
+            buffer.flip();
+        }
+
+        byte getByte() throws IOException {
+            require(Byte.BYTES);
+            return buffer.get();
+        }
+
+        int getInt() throws IOException {
+            require(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        double getDouble() throws IOException {
+            require(Double.BYTES);
+            return buffer.getDouble();
+        }
+
+        String getString() throws IOException {
+            int size = getInt();
+            if (size < 0 || size > MAX_STRING_BYTES) {
+                throw new IOException("Invalid string length: " + size);
+            }
+            byte[] bytes = new byte[size];
+            int offset = 0;
+            while (offset < bytes.length) {
+                require(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.get(bytes, offset, length);
+                offset += length;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
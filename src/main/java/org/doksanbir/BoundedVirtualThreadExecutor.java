@@ -0,0 +1,177 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every task on its own virtual thread, like {@link Executors#newVirtualThreadPerTaskExecutor()}, but with at
+ * most a fixed number of tasks in flight at once.
+ * Virtual threads are cheap, but each of them still holds its stack and whatever its task allocates, and all of them
+ * hit the same downstream services. Bounding the number of running tasks keeps both the heap and the downstream load
+ * flat however many tasks are submitted; the {@link SubmissionPolicy} decides what happens to a task submitted while
+ * the executor is saturated.
+ */
+public class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+    /**
+     * What {@link #execute} does with a task when the maximum number of tasks is already in flight.
+     */
+    public enum SubmissionPolicy {
+
+        /**
+         * Blocks the submitting thread until a running task finishes.
+         */
+        BLOCK,
+
+        /**
+         * Throws a {@link RejectedExecutionException}.
+         */
+        REJECT,
+
+        /**
+         * Runs the task on the submitting thread, which slows the submitter down to the pace of the executor.
+         */
+        CALLER_RUNS
+    }
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final SubmissionPolicy policy;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+
+    /**
+     * Creates an executor naming its threads {@code <name>-0}, {@code <name>-1} and so on.
+     *
+     * @param name        The prefix of the thread names.
+     * @param maxInFlight The maximum number of tasks running at once.
+     * @param policy      What to do with a task submitted while the executor is saturated.
+     */
+    public BoundedVirtualThreadExecutor(String name, int maxInFlight, SubmissionPolicy policy) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.permits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.policy = policy;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!acquire()) {
+            if (policy == SubmissionPolicy.CALLER_RUNS && !isShutdown()) {
+                callerRuns.increment();
+                task.run();
+                return;
+            }
+            rejected.increment();
+            throw new RejectedExecutionException("Executor saturated with " + maxInFlight + " tasks in flight");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a permit for a new task, waiting for one if the policy is {@link SubmissionPolicy#BLOCK}.
+     *
+     * @return {@code true} if a permit was taken.
+     */
+    private boolean acquire() {
+        if (policy != SubmissionPolicy.BLOCK) {
+            return permits.tryAcquire();
+        }
+        try {
+            permits.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
+        }
+    }
+
+    /**
+     * Returns the number of tasks currently running.
+     *
+     * @return The number of tasks in flight.
+     */
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Returns the maximum number of tasks running at once.
+     *
+     * @return The in-flight limit.
+     */
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Returns the number of tasks rejected because the executor was saturated or shut down.
+     *
+     * @return The number of rejected tasks.
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of tasks run on the submitting thread under {@link SubmissionPolicy#CALLER_RUNS}.
+     *
+     * @return The number of tasks run by their caller.
+     */
+    public long callerRuns() {
+        return callerRuns.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedVirtualThreadExecutor[policy=" + policy + ", inFlight=" + inFlight() + ", maxInFlight=" + maxInFlight
+                + ", rejected=" + rejected() + ", callerRuns=" + callerRuns() + "]";
+    }
+}
@@ -0,0 +1,422 @@
+package org.doksanbir;
+
+import lombok.CustomLog;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded, expiring cache in front of another {@link WeatherClient}.
+ * <ul>
+ *   <li><b>TTL:</b> a forecast is served for at most {@code ttl} after it was fetched; older entries are dropped.</li>
+ *   <li><b>Size bound:</b> at most {@code maxEntries} destinations are kept; the least recently used one is evicted
+ *   first, so memory stays bounded with thousands of destinations.</li>
+ *   <li><b>Refresh-ahead:</b> once an entry is older than {@code refreshAfter}, the next hit still returns the cached
+ *   forecast but triggers a background refresh, so popular destinations are renewed off the request path and rarely
+ *   expire.</li>
+ * </ul>
+ * The cache stores a {@link CompletableFuture} per destination rather than the forecast itself. A miss only inserts
+ * an incomplete future, which takes the lock for a map update and nothing else; the slow fetch then runs outside any
+ * lock and completes the future. Requests for the same destination arriving meanwhile receive the same future, so a
+ * destination is fetched once no matter how many callers miss at the same time. A failed fetch is removed from the
+ * cache before its future is completed, so no request is served the failure and the next one retries.
+ * <p>
+ * Hit, miss, eviction, expiration and refresh counts are available through {@link #stats()}.
+ * <p>
+ * The cache owns the executor of its asynchronous fetches and refreshes and must be closed when no longer used.
+ */
+@CustomLog
+public class CachingWeatherClient implements WeatherClient, AutoCloseable {
+
+    /**
+     * The default time a forecast stays valid.
+     */
+    static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    /**
+     * The default maximum number of cached destinations.
+     */
+    static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /**
+     * The default age, as a fraction of the TTL, after which a hit triggers a background refresh.
+     */
+    static final double DEFAULT_REFRESH_AHEAD_RATIO = 0.8;
+
+    private final WeatherClient delegate;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final LongSupplier clock;
+
+    /**
+     * Runs asynchronous fetches and background refreshes.
+     */
+    private final Executor executor;
+
+    /**
+     * Guards {@link #entries}. A lock is used instead of synchronized so virtual threads never pin their carrier here.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CacheEntry> entries;
+
+    private volatile boolean closed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * Creates a cache with the default TTL and size bound.
+     *
+     * @param delegate The client fetching forecasts that are not cached.
+     */
+    public CachingWeatherClient(WeatherClient delegate) {
+        this(delegate, DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a cache that refreshes entries once they have reached the default fraction of the TTL.
+     *
+     * @param delegate   The client fetching forecasts that are not cached.
+     * @param ttl        How long a forecast stays valid.
+     * @param maxEntries The maximum number of cached destinations.
+     */
+    public CachingWeatherClient(WeatherClient delegate, Duration ttl, int maxEntries) {
+        this(delegate, ttl, maxEntries, Duration.ofNanos((long) (ttl.toNanos() * DEFAULT_REFRESH_AHEAD_RATIO)));
+    }
+
+    /**
+     * Creates a cache with the given TTL, size bound and refresh-ahead age.
+     * Asynchronous fetches and refreshes run on virtual threads.
+     *
+     * @param delegate     The client fetching forecasts that are not cached.
+     * @param ttl          How long a forecast stays valid.
+     * @param maxEntries   The maximum number of cached destinations.
+     * @param refreshAfter The age after which a hit triggers a background refresh; at least {@code ttl} disables it.
+     */
+    public CachingWeatherClient(WeatherClient delegate, Duration ttl, int maxEntries, Duration refreshAfter) {
+        this(delegate, ttl, maxEntries, refreshAfter, System::nanoTime,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("weather-cache-", 0).factory()));
+    }
+
+    /**
+     * Creates a cache running its asynchronous fetches and refreshes on the given executor, which it shuts down on
+     * {@link #close()} if it is an {@link ExecutorService}.
+     */
+    CachingWeatherClient(WeatherClient delegate, Duration ttl, int maxEntries, Duration refreshAfter,
+                         LongSupplier clock, Executor executor) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.clock = clock;
+        this.executor = executor;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the forecast for the destination, fetching it on the calling thread on a miss.
+     */
+    @Override
+    public String fetchForecast(String destination) {
+        Lookup lookup = lookup(destination);
+        if (lookup.created()) {
+            load(destination, lookup.entry());
+        }
+        return await(lookup.entry().forecast);
+    }
+
+    /**
+     * Returns the forecasts of the destinations, fetching all misses with a single bulk call to the delegate
+     * on the calling thread.
+     */
+    @Override
+    public Map<String, String> fetchForecasts(Collection<String> destinations) {
+        Map<String, CacheEntry> found = new LinkedHashMap<>();
+        Map<String, CacheEntry> missing = new LinkedHashMap<>();
+        for (String destination : destinations) {
+            if (!found.containsKey(destination)) {
+                Lookup lookup = lookup(destination);
+                found.put(destination, lookup.entry());
+                if (lookup.created()) {
+                    missing.put(destination, lookup.entry());
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            loadAll(missing);
+        }
+        Map<String, String> forecasts = new LinkedHashMap<>();
+        found.forEach((destination, entry) -> forecasts.put(destination, await(entry.forecast)));
+        return forecasts;
+    }
+
+    /**
+     * Returns the forecast for the destination without blocking. On a miss the fetch is started on the cache executor.
+     *
+     * @param destination The name of the travel destination.
+     * @return A future completed with the forecast, shared by all callers requesting the destination meanwhile.
+     */
+    public CompletableFuture<String> fetchForecastAsync(String destination) {
+        Lookup lookup = lookup(destination);
+        if (lookup.created()) {
+            try {
+                executor.execute(() -> load(destination, lookup.entry()));
+            } catch (RejectedExecutionException e) {
+                fail(destination, lookup.entry(), e);
+            }
+        }
+        return lookup.entry().forecast;
+    }
+
+    /**
+     * Finds the entry of the destination, or inserts an incomplete one if there is no valid entry.
+     * Only map operations happen under the lock; fetching is left to the caller.
+     *
+     * @param destination The name of the travel destination.
+     * @return The entry to wait on, and whether the caller created it and must load it.
+     */
+    private Lookup lookup(String destination) {
+        long now = clock.getAsLong();
+        CacheEntry entry;
+        boolean created = false;
+        boolean refresh = false;
+        lock.lock();
+        try {
+            entry = entries.get(destination);
+            if (entry != null && entry.isExpired(now, ttlNanos)) {
+                entries.remove(destination);
+                expirations.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new CacheEntry(new CompletableFuture<>());
+                entries.put(destination, entry);
+                created = true;
+            } else if (!closed && entry.needsRefresh(now, refreshAfterNanos)) {
+                entry.refreshing = true;
+                refresh = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (created) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        if (refresh) {
+            scheduleRefresh(destination, entry);
+        }
+        return new Lookup(entry, created);
+    }
+
+    /**
+     * Fetches the forecast of a newly created entry and completes it.
+     * A failed entry is removed, so the next request starts a new fetch.
+     */
+    private void load(String destination, CacheEntry entry) {
+        try {
+            String forecast = delegate.fetchForecast(destination);
+            entry.loadedAt = clock.getAsLong();
+            entry.forecast.complete(forecast);
+        } catch (RuntimeException | Error e) {
+            fail(destination, entry, e);
+        }
+    }
+
+    /**
+     * Removes the entry of a failed fetch, then fails the callers waiting for it. Removing it first guarantees that
+     * a later lookup never finds the failed entry and starts a new fetch instead.
+     */
+    private void fail(String destination, CacheEntry entry, Throwable failure) {
+        remove(destination, entry);
+        entry.forecast.completeExceptionally(failure);
+    }
+
+    /**
+     * Fetches the forecasts of newly created entries with one bulk call and completes them.
+     */
+    private void loadAll(Map<String, CacheEntry> missing) {
+        try {
+            Map<String, String> forecasts = delegate.fetchForecasts(missing.keySet());
+            long now = clock.getAsLong();
+            missing.forEach((destination, entry) -> {
+                String forecast = forecasts.get(destination);
+                if (forecast != null) {
+                    entry.loadedAt = now;
+                    entry.forecast.complete(forecast);
+                } else {
+                    fail(destination, entry, new IllegalStateException("No forecast returned for destination: " + destination));
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            missing.forEach((destination, entry) -> fail(destination, entry, e));
+        }
+    }
+
+    private static String await(CompletableFuture<String> forecast) {
+        try {
+            return forecast.get();
+        } catch (ExecutionException e) {
+            throw ExecutionStrategies.propagate(e);
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
+        }
+    }
+
+    private void scheduleRefresh(String destination, CacheEntry entry) {
+        try {
+            executor.execute(() -> refresh(destination, entry));
+        } catch (RejectedExecutionException e) {
+            log.warn("Refreshing the weather forecast was rejected for destination: {}", destination, e);
+            clearRefreshing(entry);
+        }
+    }
+
+    /**
+     * Fetches a new forecast for a cached destination in the background and replaces the entry with it.
+     * If the refresh fails, the cached forecast is kept until it expires and the next hit retries.
+     */
+    private void refresh(String destination, CacheEntry stale) {
+        try {
+            CacheEntry fresh = new CacheEntry(CompletableFuture.completedFuture(delegate.fetchForecast(destination)));
+            fresh.loadedAt = clock.getAsLong();
+            lock.lock();
+            try {
+                entries.replace(destination, stale, fresh);
+            } finally {
+                lock.unlock();
+            }
+            refreshes.increment();
+        } catch (RuntimeException e) {
+            log.warn("Refreshing the weather forecast failed for destination: {}", destination, e);
+            clearRefreshing(stale);
+        }
+    }
+
+    private void clearRefreshing(CacheEntry entry) {
+        lock.lock();
+        try {
+            entry.refreshing = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String destination, CacheEntry entry) {
+        lock.lock();
+        try {
+            entries.remove(destination, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the executor of asynchronous fetches and background refreshes; the fetches already started complete.
+     * The cache keeps serving {@link #fetchForecast} and {@link #fetchForecasts} afterwards, without refreshing
+     * ahead, while {@link #fetchForecastAsync} fails on a miss.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Returns the number of cached destinations, including fetches in flight and expired entries not yet looked up
+     * again.
+     *
+     * @return The number of cached destinations.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     *
+     * @return The current cache statistics.
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), refreshes.sum(), size());
+    }
+
+    /**
+     * A snapshot of the cache counters.
+     *
+     * @param hits        The number of lookups served from the cache, including lookups joining a fetch in flight.
+     * @param misses      The number of lookups that started a fetch.
+     * @param evictions   The number of entries removed to respect the size bound.
+     * @param expirations The number of entries dropped because they outlived the TTL.
+     * @param refreshes   The number of entries renewed in the background.
+     * @param size        The number of cached destinations.
+     */
+    public record CacheStats(long hits, long misses, long evictions, long expirations, long refreshes, int size) {
+    }
+
+    /**
+     * The result of a lookup: the entry to wait on and whether the lookup created it.
+     */
+    private record Lookup(CacheEntry entry, boolean created) {
+    }
+
+    /**
+     * A cached forecast, possibly still being fetched. The refreshing flag is guarded by the cache lock.
+     */
+    private static final class CacheEntry {
+        final CompletableFuture<String> forecast;
+        volatile long loadedAt;
+        boolean refreshing;
+
+        CacheEntry(CompletableFuture<String> forecast) {
+            this.forecast = forecast;
+        }
+
+        /**
+         * An entry expires once its forecast is older than the TTL; fetches in flight never expire. Failed fetches
+         * are removed before they complete, so a completed entry always has its load time.
+         */
+        boolean isExpired(long now, long ttlNanos) {
+            return forecast.isDone() && now - loadedAt >= ttlNanos;
+        }
+
+        boolean needsRefresh(long now, long refreshAfterNanos) {
+            return forecast.isDone() && !forecast.isCompletedExceptionally() && !refreshing
+                    && now - loadedAt >= refreshAfterNanos;
+        }
+    }
+}
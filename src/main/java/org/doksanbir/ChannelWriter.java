@@ -0,0 +1,112 @@
+package org.doksanbir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered, big-endian output to a {@link WritableByteChannel}.
+ * Values are put into a direct buffer that is written to the channel whenever it runs out of room and on
+ * {@link #flush()}, which the caller must invoke once it is done.
+ */
+class ChannelWriter {
+
+    /**
+     * The default size of the buffer.
+     */
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    ChannelWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    ChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    ChannelWriter putByte(int value) throws IOException {
+        ensureRemaining(Byte.BYTES);
+        buffer.put((byte) value);
+        return this;
+    }
+
+    ChannelWriter putInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+        return this;
+    }
+
+    ChannelWriter putDouble(double value) throws IOException {
+        ensureRemaining(Double.BYTES);
+        buffer.putDouble(value);
+        return this;
+    }
+
+    /**
+     * Puts the bytes, splitting them over several buffers if they do not fit into the remaining space.
+     */
+    ChannelWriter putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+
+    /**
+     * Puts the text encoded as UTF-8, without a length prefix.
+     */
+    ChannelWriter putText(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+        return this;
+    }
+
+    /**
+     * Writes everything put so far to the channel.
+     */
+    void flush() throws IOException {
+        drain();
+    }
+}
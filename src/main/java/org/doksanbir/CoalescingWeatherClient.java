@@ -0,0 +1,94 @@
+package org.doksanbir;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent forecast requests for the same destination into a single backend call (single-flight).
+ * The first caller for a destination performs the fetch; every caller arriving while that fetch is in flight waits for
+ * it and receives the same forecast, or the same failure. Once the fetch completes the destination is released, so the
+ * next request starts a new call; nothing is cached beyond the lifetime of the in-flight call.
+ * <p>
+ * A {@link CachingWeatherClient} already shares the fetch of a destination between concurrent misses, so this client
+ * is meant for callers without a cache; placed behind a cache it would never see two requests for the same destination.
+ */
+public class CoalescingWeatherClient implements WeatherClient {
+
+    private final WeatherClient delegate;
+
+    /**
+     * The fetch currently in flight for each destination.
+     */
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder backendCalls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    /**
+     * Creates a client coalescing the calls made to the given client.
+     *
+     * @param delegate The client performing the actual fetch.
+     */
+    public CoalescingWeatherClient(WeatherClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String fetchForecast(String destination) {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(destination, call);
+        if (existing != null) {
+            coalescedCalls.increment();
+            return await(existing);
+        }
+
+        backendCalls.increment();
+        try {
+            String forecast = delegate.fetchForecast(destination);
+            call.complete(forecast);
+            return forecast;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(destination, call);
+        }
+    }
+
+    /**
+     * Waits for the fetch started by another caller.
+     *
+     * @param call The fetch in flight.
+     * @return The forecast of the fetch.
+     */
+    private static String await(CompletableFuture<String> call) {
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            throw ExecutionStrategies.propagate(e);
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
+        }
+    }
+
+    /**
+     * Returns the number of calls made to the backend.
+     *
+     * @return The number of requests that started a fetch.
+     */
+    public long backendCalls() {
+        return backendCalls.sum();
+    }
+
+    /**
+     * Returns the number of requests served by joining a fetch already in flight.
+     *
+     * @return The number of coalesced requests.
+     */
+    public long coalescedCalls() {
+        return coalescedCalls.sum();
+    }
+}
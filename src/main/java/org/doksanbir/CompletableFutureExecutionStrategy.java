@@ -0,0 +1,51 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Submits every task with {@link CompletableFuture#supplyAsync} and waits for all of them with
+ * {@link CompletableFuture#allOf}, as {@link AsyncTravelAgency} does.
+ * By default the tasks run on the common fork-join pool.
+ */
+public class CompletableFutureExecutionStrategy implements ExecutionStrategy {
+
+    static final String NAME = "completable-future";
+
+    private final Executor executor;
+
+    public CompletableFutureExecutionStrategy() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a strategy that runs the asynchronous tasks on the given executor.
+     *
+     * @param executor The executor running the tasks.
+     */
+    public CompletableFutureExecutionStrategy(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public <T, R> List<R> executeAll(List<T> tasks, Function<? super T, ? extends R> action) {
+        List<CompletableFuture<R>> futures = tasks.stream()
+                .map(task -> CompletableFuture.<R>supplyAsync(() -> action.apply(task), executor))
+                .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw ExecutionStrategies.propagate(e);
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+}
@@ -0,0 +1,169 @@
+package org.doksanbir;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Waits for any number of fire-and-forget tasks without keeping a reference to each of their threads.
+ * Every task started through the tracker increments a pending counter and decrements it when it finishes, so
+ * awaiting a million tasks costs one counter instead of a list of a million {@link Thread} objects, each of which
+ * would otherwise stay reachable until the join loop gets to it.
+ * <p>
+ * Only the threads of tasks that are running right now are remembered, so {@link #cancel()} can interrupt them;
+ * finished tasks leave nothing behind. Tasks should all be started before waiting, since the tracker is done
+ * whenever nothing is pending.
+ */
+public class CompletionTracker {
+
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition done = lock.newCondition();
+
+    /**
+     * Starts a thread running the task, tracked until it finishes.
+     * The thread is not returned, so the caller cannot accidentally retain it.
+     *
+     * @param builder The builder of the thread, for example {@code Thread.ofVirtual()}.
+     * @param task    The task to run.
+     */
+    public void start(Thread.Builder builder, Runnable task) {
+        Runnable tracked = track(task);
+        try {
+            builder.start(tracked);
+        } catch (RuntimeException | Error e) {
+            arrive();
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps the task so that the tracker counts it as pending until it has run, for submission to an executor.
+     * The returned task must be run exactly once.
+     *
+     * @param task The task to track.
+     * @return The tracked task.
+     */
+    public Runnable track(Runnable task) {
+        pending.incrementAndGet();
+        return () -> {
+            Thread thread = Thread.currentThread();
+            running.add(thread);
+            try {
+                task.run();
+                completed.increment();
+            } catch (RuntimeException | Error e) {
+                failed.increment();
+                throw e;
+            } finally {
+                running.remove(thread);
+                arrive();
+            }
+        };
+    }
+
+    private void arrive() {
+        if (pending.decrementAndGet() == 0) {
+            lock.lock();
+            try {
+                done.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits until every tracked task has finished.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public void await() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending.get() > 0) {
+                done.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every tracked task has finished or the timeout has elapsed.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return {@code true} if every task finished in time.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (pending.get() > 0) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = done.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Interrupts the threads of the tasks that are still running.
+     *
+     * @return The number of threads interrupted.
+     */
+    public int cancel() {
+        int interrupted = 0;
+        for (Thread thread : running) {
+            thread.interrupt();
+            interrupted++;
+        }
+        return interrupted;
+    }
+
+    /**
+     * Returns the number of tasks started but not finished yet.
+     *
+     * @return The number of pending tasks.
+     */
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * Returns the number of tasks that finished normally.
+     *
+     * @return The number of completed tasks.
+     */
+    public long completed() {
+        return completed.sum();
+    }
+
+    /**
+     * Returns the number of tasks that threw an exception.
+     *
+     * @return The number of failed tasks.
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CompletionTracker[pending=" + pending() + ", completed=" + completed() + ", failed=" + failed() + "]";
+    }
+}
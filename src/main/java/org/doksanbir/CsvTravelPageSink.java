@@ -0,0 +1,54 @@
+package org.doksanbir;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes the travel page as CSV with a header line, one destination per line.
+ * Fields containing a comma, a quote or a line break are quoted; a quotation that is not available is left empty.
+ */
+public class CsvTravelPageSink implements TravelPageSink {
+
+    static final String NAME = "csv";
+
+    static final String HEADER = "destination,weather,days,people,quotation,degraded\n";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public DestinationWriter open(WritableByteChannel channel) throws IOException {
+        ChannelWriter writer = new ChannelWriter(channel);
+        StringBuilder line = new StringBuilder(128);
+        writer.putText(HEADER);
+        return new DestinationWriter() {
+            @Override
+            public void write(DestinationResult result) throws IOException {
+                line.setLength(0);
+                appendField(line, result.destination()).append(',');
+                appendField(line, result.weather()).append(',');
+                line.append(result.days()).append(',')
+                        .append(result.people()).append(',');
+                if (!Double.isNaN(result.quotation())) {
+                    line.append(result.quotation());
+                }
+                line.append(',').append(result.degraded()).append('\n');
+                writer.putText(line);
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    private static StringBuilder appendField(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
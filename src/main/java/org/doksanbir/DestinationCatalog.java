@@ -0,0 +1,268 @@
+package org.doksanbir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * The destinations of a travel agency, compact enough to hold the millions of entries of a real inventory.
+ * <p>
+ * Every destination name is interned to a dense integer id, its index in the catalog. The names are stored back to
+ * back as UTF-8 in a single off-heap buffer, addressed by a primitive array of offsets, so a million destinations
+ * cost a few tens of megabytes outside the heap and two arrays on it, instead of a million {@code String} objects.
+ * Lookup by id is an array access; lookup by name goes through an open-addressing hash table of ids, comparing the
+ * UTF-8 bytes in place.
+ * <p>
+ * The catalog is a read-only {@link java.util.List} of the names in id order, so it can stand in wherever the agencies take a
+ * list of destinations; names are decoded on access.
+ */
+public final class DestinationCatalog extends AbstractList<String> implements RandomAccess {
+
+    /**
+     * Marks an empty slot of the hash table.
+     */
+    private static final int EMPTY = -1;
+
+    private final ByteBuffer names;
+    private final int[] offsets;
+    private final int[] table;
+    private final int size;
+
+    private DestinationCatalog(ByteBuffer names, int[] offsets, int[] table, int size) {
+        this.names = names;
+        this.offsets = offsets;
+        this.table = table;
+        this.size = size;
+    }
+
+    /**
+     * Creates a catalog of the given names, in iteration order. Duplicate names get the id of their first occurrence.
+     *
+     * @param names The destination names.
+     * @return The catalog.
+     */
+    public static DestinationCatalog of(Collection<String> names) {
+        Builder builder = new Builder(names.size());
+        names.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Creates the catalog of the synthetic destinations used by the agencies, {@code Destination_1} to
+     * {@code Destination_<count>}.
+     *
+     * @param count The number of destinations.
+     * @return The catalog, where {@code Destination_1} has id 0.
+     */
+    public static DestinationCatalog synthetic(int count) {
+        Builder builder = new Builder(count);
+        for (int i = 0; i < count; i++) {
+            builder.add("Destination_" + (i + 1));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Loads a catalog from a UTF-8 text file with one destination name per line.
+     * Leading and trailing whitespace is removed, blank lines are skipped and duplicate names get the id of their
+     * first occurrence.
+     *
+     * @param path The file to load.
+     * @return The catalog, with ids in file order.
+     * @throws IOException if the file cannot be read.
+     */
+    public static DestinationCatalog load(Path path) throws IOException {
+        Builder builder = new Builder(1024);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String name = line.strip();
+                if (!name.isEmpty()) {
+                    builder.add(name);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the name of the destination with the given id.
+     *
+     * @param id The destination id.
+     * @return The destination name.
+     * @throws IndexOutOfBoundsException if there is no destination with the id.
+     */
+    @Override
+    public String get(int id) {
+        return name(id);
+    }
+
+    /**
+     * Returns the name of the destination with the given id.
+     *
+     * @param id The destination id.
+     * @return The destination name.
+     * @throws IndexOutOfBoundsException if there is no destination with the id.
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No destination with id " + id + ", catalog size " + size);
+        }
+        int offset = offsets[id];
+        byte[] bytes = new byte[offsets[id + 1] - offset];
+        names.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the id of the destination with the given name.
+     *
+     * @param name The destination name.
+     * @return The destination id, or {@code -1} if the catalog does not contain the destination.
+     */
+    public int id(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int mask = table.length - 1;
+        for (int slot = hash(bytes) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                return -1;
+            }
+            if (matches(names, offsets[id], offsets[id + 1], bytes)) {
+                return id;
+            }
+        }
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof String name ? id(name) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns the number of bytes used by the destination names outside the heap.
+     *
+     * @return The size of the off-heap name storage.
+     */
+    public long offHeapBytes() {
+        return names.capacity();
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = 0x811c9dc5;
+        for (byte b : bytes) {
+            hash = (hash ^ b) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(ByteBuffer names, int start, int end, byte[] bytes) {
+        if (end - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (names.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Interns destination names into growing off-heap storage and hands the result over to a catalog.
+     */
+    private static final class Builder {
+
+        private ByteBuffer names;
+        private int[] offsets;
+        private int[] table;
+        private int size;
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            names = ByteBuffer.allocateDirect((int) Math.min((long) capacity * 16, Integer.MAX_VALUE));
+            offsets = new int[capacity + 1];
+            table = newTable(capacity);
+        }
+
+        private static int[] newTable(int capacity) {
+            // At most half full, so probe sequences stay short
+            int[] table = new int[Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) << 1];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+
+        int add(String name) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            int mask = table.length - 1;
+            int slot = hash(bytes) & mask;
+            for (; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+                int id = table[slot];
+                if (matches(names, offsets[id], offsets[id + 1], bytes)) {
+                    return id;
+                }
+            }
+
+            if (names.remaining() < bytes.length) {
+                long capacity = Math.max((long) names.capacity() * 2, (long) names.position() + bytes.length);
+                if (capacity > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Destination names exceed " + Integer.MAX_VALUE + " bytes");
+                }
+                names = ByteBuffer.allocateDirect((int) capacity).put(names.flip());
+            }
+            if (size + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int id = size++;
+            names.put(bytes);
+            offsets[id + 1] = names.position();
+            table[slot] = id;
+            if (size * 2 > table.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        private void rehash() {
+            table = newTable(table.length);
+            int mask = table.length - 1;
+            for (int id = 0; id < size; id++) {
+                int start = offsets[id];
+                byte[] bytes = new byte[offsets[id + 1] - start];
+                names.get(start, bytes);
+                int slot = hash(bytes) & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = id;
+            }
+        }
+
+        DestinationCatalog build() {
+            ByteBuffer compact = ByteBuffer.allocateDirect(Math.max(names.position(), 1)).put(names.flip()).flip();
+            return new DestinationCatalog(compact.asReadOnlyBuffer(), Arrays.copyOf(offsets, size + 1), table, size);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.doksanbir;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Streams a feed of trips through a pricing stage and a weather stage to a page sink, with demand-driven backpressure.
+ * <p>
+ * The agencies materialize every destination and a future per destination before they wait for the page, so their
+ * memory grows with the number of destinations. Here the trips are published one by one with a
+ * {@link SubmissionPublisher}; each stage is a {@link Flow.Processor} that requests a new item from upstream only
+ * when one of its at most {@code maxInFlight} items is done, and the sink requests a new result only when it has
+ * written the previous one. A slow stage therefore blocks the feed instead of letting items pile up, and a feed of
+ * any length, even an unbounded one, is processed with a constant number of items in memory.
+ * <p>
+ * Quotations are computed on the CPU executor and forecasts fetched on the I/O executor of an
+ * {@link ExecutorTopology}. Results reach the sink in completion order, not in feed order. A forecast that fails is
+ * written as a degraded destination rather than failing the page.
+ */
+final class DestinationPipeline {
+
+    /**
+     * The default number of items each stage processes at once, which is also the size of the stage buffers.
+     */
+    static final int DEFAULT_MAX_IN_FLIGHT = Flow.defaultBufferSize();
+
+    private final TravelAgency agency;
+    private final ExecutorTopology executors;
+    private final int maxInFlight;
+
+    /**
+     * Creates a pipeline pricing and forecasting with the agency.
+     *
+     * @param agency      The agency calculating the quotations and fetching the forecasts.
+     * @param executors   The executors running the pricing and weather stages.
+     * @param maxInFlight The number of items each stage processes at once.
+     */
+    DestinationPipeline(TravelAgency agency, ExecutorTopology executors, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.agency = agency;
+        this.executors = executors;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Streams every trip of the feed to the writer. The feed is consumed on the calling thread, which blocks while
+     * the pipeline is full. The writer is not closed.
+     *
+     * @param trips  The trips, possibly produced lazily.
+     * @param writer The writer of the page.
+     * @return The number of destinations written.
+     * @throws IOException if the writer fails.
+     */
+    long run(Iterator<TravelRequest> trips, TravelPageSink.DestinationWriter writer) throws IOException {
+        SinkSubscriber sink = new SinkSubscriber(writer, maxInFlight);
+        // Items are handed between the stages by virtual threads, so a stage waiting for room downstream blocks a
+        // virtual thread and never a thread of the CPU or I/O executor
+        try (ExecutorService delivery = Executors.newVirtualThreadPerTaskExecutor();
+             SubmissionPublisher<TravelRequest> source = new SubmissionPublisher<>(delivery, maxInFlight)) {
+            Stage<TravelRequest, PricedTrip> pricing = new Stage<>(this::price, executors.cpu(), delivery, maxInFlight);
+            Stage<PricedTrip, DestinationResult> weather = new Stage<>(this::forecast, executors.io(), delivery, maxInFlight);
+            source.subscribe(pricing);
+            pricing.subscribe(weather);
+            weather.subscribe(sink);
+
+            while (trips.hasNext() && !sink.done.isDone()) {
+                source.submit(trips.next());
+            }
+            source.close();
+            return sink.done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw ExecutionStrategies.propagate(e);
+        }
+    }
+
+    private PricedTrip price(TravelRequest trip) {
+        return new PricedTrip(trip, agency.getQuotation(trip.destination(), trip.days(), trip.people()));
+    }
+
+    private DestinationResult forecast(PricedTrip trip) {
+        String weather;
+        try {
+            weather = agency.getWeatherForecast(trip.request().destination());
+        } catch (RuntimeException e) {
+            weather = null;
+        }
+        return DestinationResult.ofPartial(trip.request(), weather, trip.quotation());
+    }
+
+    /**
+     * A trip whose quotation has been calculated, on its way to the weather stage.
+     */
+    private record PricedTrip(TravelRequest request, double quotation) {
+    }
+
+    /**
+     * Applies a function to every item on an executor, with at most {@code maxInFlight} items requested from upstream
+     * and not yet published downstream. The results are published from the delivery executor, so the executor of the
+     * function is released as soon as the function returns, even when the downstream buffer is full.
+     */
+    private static final class Stage<T, R> extends SubmissionPublisher<R> implements Flow.Processor<T, R> {
+
+        private final Function<? super T, ? extends R> function;
+        private final Executor executor;
+        private final int maxInFlight;
+
+        /**
+         * The items being processed, plus one until the upstream completes. The stage completes at zero.
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        private volatile Flow.Subscription upstream;
+
+        Stage(Function<? super T, ? extends R> function, Executor executor, Executor delivery, int maxInFlight) {
+            super(delivery, maxInFlight);
+            this.function = function;
+            this.executor = executor;
+            this.maxInFlight = maxInFlight;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            subscription.request(maxInFlight);
+        }
+
+        @Override
+        public void onNext(T item) {
+            pending.incrementAndGet();
+            try {
+                executor.execute(() -> process(item));
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        private void process(T item) {
+            try {
+                R result = function.apply(item);
+                getExecutor().execute(() -> deliver(result));
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        private void deliver(R result) {
+            try {
+                // Blocks while the downstream buffer is full, which holds back the requests to upstream
+                submit(result);
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            upstream.request(1);
+            release();
+        }
+
+        private void fail(Throwable failure) {
+            upstream.cancel();
+            closeExceptionally(failure);
+        }
+
+        private void release() {
+            if (pending.decrementAndGet() == 0) {
+                close();
+            }
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            closeExceptionally(failure);
+        }
+
+        @Override
+        public void onComplete() {
+            release();
+        }
+    }
+
+    /**
+     * Writes the results to the page, requesting the next one after each write.
+     */
+    private static final class SinkSubscriber implements Flow.Subscriber<DestinationResult> {
+
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+
+        private final TravelPageSink.DestinationWriter writer;
+        private final int prefetch;
+        private Flow.Subscription subscription;
+        private long written;
+
+        SinkSubscriber(TravelPageSink.DestinationWriter writer, int prefetch) {
+            this.writer = writer;
+            this.prefetch = prefetch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(DestinationResult result) {
+            if (done.isDone()) {
+                return;
+            }
+            try {
+                writer.write(result);
+            } catch (IOException e) {
+                subscription.cancel();
+                done.completeExceptionally(e);
+                return;
+            }
+            written++;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            done.completeExceptionally(failure);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(written);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.doksanbir;
+
+/**
+ * The information shown for a single destination on the travel page.
+ *
+ * @param destination The name of the travel destination.
+ * @param weather     The weather forecast for the destination, or {@link #FALLBACK_WEATHER} if it was not available.
+ * @param days        The number of days for the trip.
+ * @param people      The number of people traveling.
+ * @param quotation   The calculated quotation for the trip, or {@link #FALLBACK_QUOTATION} if it was not available.
+ * @param degraded    Whether the weather or the quotation missed the page deadline and was replaced by its fallback.
+ */
+public record DestinationResult(String destination, String weather, int days, int people, double quotation,
+                                boolean degraded) {
+
+    /**
+     * The weather shown when the forecast did not arrive before the page deadline.
+     */
+    public static final String FALLBACK_WEATHER = "Unavailable";
+
+    /**
+     * The quotation shown when the price was not calculated before the page deadline.
+     */
+    public static final double FALLBACK_QUOTATION = Double.NaN;
+
+    /**
+     * Creates the complete result of a destination.
+     */
+    public DestinationResult(String destination, String weather, int days, int people, double quotation) {
+        this(destination, weather, days, people, quotation, false);
+    }
+
+    /**
+     * Creates the result of a destination from whatever arrived before the page deadline.
+     *
+     * @param request   The trip of the destination.
+     * @param weather   The forecast, or {@code null} if it did not arrive in time.
+     * @param quotation The quotation, or {@code null} if it was not calculated in time.
+     * @return The result, degraded if anything was missing.
+     */
+    static DestinationResult ofPartial(TravelRequest request, String weather, Double quotation) {
+        boolean degraded = weather == null || quotation == null;
+        return new DestinationResult(request.destination(), weather != null ? weather : FALLBACK_WEATHER,
+                request.days(), request.people(), quotation != null ? quotation : FALLBACK_QUOTATION, degraded);
+    }
+}
@@ -0,0 +1,122 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Factory for the available {@link ExecutionStrategy} implementations.
+ * Strategies can be created directly or selected by name, which is how {@link TravelAgencyEngine} picks
+ * its engine at startup from the {@code travel.strategy} system property.
+ */
+public final class ExecutionStrategies {
+
+    /**
+     * The names accepted by {@link #byName(String)}.
+     */
+    static final List<String> NAMES = List.of(
+            SequentialExecutionStrategy.NAME,
+            FixedThreadPoolExecutionStrategy.NAME,
+            ForkJoinExecutionStrategy.NAME,
+            CompletableFutureExecutionStrategy.NAME,
+            VirtualThreadExecutionStrategy.NAME,
+            StructuredConcurrencyExecutionStrategy.NAME
+    );
+
+    private ExecutionStrategies() {
+    }
+
+    public static ExecutionStrategy sequential() {
+        return new SequentialExecutionStrategy();
+    }
+
+    public static ExecutionStrategy fixedThreadPool(int threads) {
+        return new FixedThreadPoolExecutionStrategy(threads);
+    }
+
+    public static ExecutionStrategy forkJoin(int parallelism) {
+        return new ForkJoinExecutionStrategy(parallelism);
+    }
+
+    public static ExecutionStrategy completableFuture() {
+        return new CompletableFutureExecutionStrategy();
+    }
+
+    public static ExecutionStrategy virtualThreads() {
+        return new VirtualThreadExecutionStrategy();
+    }
+
+    public static ExecutionStrategy structuredConcurrency() {
+        return new StructuredConcurrencyExecutionStrategy();
+    }
+
+    /**
+     * Creates the strategy registered under the given name.
+     * Pool based strategies are sized to the number of available processors.
+     *
+     * @param name One of {@link #NAMES}, case-insensitive.
+     * @return A new strategy instance.
+     * @throws IllegalArgumentException if no strategy is registered under the name.
+     */
+    public static ExecutionStrategy byName(String name) {
+        return byName(name, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates the strategy registered under the given name, sizing pool based strategies to the given parallelism.
+     * Strategies without a pool of their own ignore the parallelism.
+     *
+     * @param name        One of {@link #NAMES}, case-insensitive.
+     * @param parallelism The number of threads of the fixed pool and the parallelism of the fork-join pool.
+     * @return A new strategy instance.
+     * @throws IllegalArgumentException if no strategy is registered under the name.
+     */
+    public static ExecutionStrategy byName(String name, int parallelism) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case SequentialExecutionStrategy.NAME -> sequential();
+            case FixedThreadPoolExecutionStrategy.NAME -> fixedThreadPool(parallelism);
+            case ForkJoinExecutionStrategy.NAME -> forkJoin(parallelism);
+            case CompletableFutureExecutionStrategy.NAME -> completableFuture();
+            case VirtualThreadExecutionStrategy.NAME -> virtualThreads();
+            case StructuredConcurrencyExecutionStrategy.NAME -> structuredConcurrency();
+            default -> throw new IllegalArgumentException("Unknown execution strategy: " + name + ", expected one of " + NAMES);
+        };
+    }
+
+    /**
+     * Converts the failure of a task into the unchecked exception rethrown by {@link ExecutionStrategy#executeAll}.
+     * Runtime exceptions and errors thrown by the action itself are passed through unchanged.
+     *
+     * @param failure The failure reported by the executor.
+     * @return The exception to throw.
+     */
+    static RuntimeException propagate(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        // Fork-join tasks rethrow a copy of an exception thrown in another worker, with the original as its cause
+        while (cause.getCause() != null && cause.getCause().getClass() == cause.getClass()) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+
+    /**
+     * Restores the interrupted status of the current thread and converts the interruption into an unchecked exception.
+     *
+     * @param e The interruption.
+     * @return The exception to throw.
+     */
+    static RuntimeException interrupted(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return new CompletionException("Interrupted while waiting for tasks to complete", e);
+    }
+}
@@ -0,0 +1,40 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Decides how the per-destination work of a travel page is scheduled.
+ * Implementations range from a plain sequential loop to thread pools, fork-join, CompletableFuture chains,
+ * virtual threads and structured concurrency, so the same workload can be run and compared on each of them.
+ * <p>
+ * Strategies may own threads; they are closed once the agency using them is done.
+ */
+public interface ExecutionStrategy extends AutoCloseable {
+
+    /**
+     * Returns the name used to select this strategy, for example from the {@code travel.strategy} system property.
+     *
+     * @return The strategy name.
+     */
+    String name();
+
+    /**
+     * Applies the action to every task and waits for all of them to complete.
+     * If any action fails, the failure is rethrown to the caller as an unchecked exception.
+     *
+     * @param tasks  The tasks to process.
+     * @param action The action to apply to each task.
+     * @param <T>    The type of the tasks.
+     * @param <R>    The type of the results.
+     * @return The results, in the same order as the tasks.
+     */
+    <T, R> List<R> executeAll(List<T> tasks, Function<? super T, ? extends R> action);
+
+    /**
+     * Releases the threads owned by this strategy. Strategies without threads of their own do nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,239 @@
+package org.doksanbir;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The executors of an agency, one for CPU-bound pricing and one for blocking I/O such as the weather fetch.
+ * <p>
+ * Running both on the same pool lets the blocking calls occupy the threads the pricing needs, and running them on
+ * the common fork-join pool, as {@code CompletableFuture.supplyAsync} without an executor does, starves every parallel
+ * stream of the JVM. The CPU executor is a fixed pool with one thread per core; the I/O executor starts a virtual
+ * thread per task, or uses an elastic pool of platform threads. Both count their tasks, so the queue depth and
+ * utilisation of each pool can be logged with the performance metrics.
+ * <p>
+ * The topology of an agency is configured with the {@code travel.<agency>.cpu.threads} and {@code travel.<agency>.io}
+ * ({@code virtual} or {@code elastic}) system properties, for example {@code -Dtravel.async.io=elastic}. All threads
+ * are daemon threads, so a topology that is never closed does not keep the JVM alive.
+ */
+public class ExecutorTopology implements AutoCloseable {
+
+    /**
+     * How the I/O executor runs its tasks.
+     */
+    public enum IoMode {
+
+        /**
+         * A new virtual thread per task, which unmounts while it waits for I/O.
+         */
+        VIRTUAL,
+
+        /**
+         * A cached pool of platform threads, growing with the number of tasks waiting for I/O.
+         */
+        ELASTIC;
+
+        /**
+         * Returns the mode with the given name, ignoring case.
+         *
+         * @param name The name of the mode.
+         * @return The mode.
+         * @throws IllegalArgumentException if there is no mode with the name.
+         */
+        public static IoMode byName(String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final MeteredExecutor cpu;
+    private final MeteredExecutor io;
+
+    /**
+     * Creates the executors of an agency.
+     *
+     * @param agency     The name of the agency, used to name the threads.
+     * @param cpuThreads The number of threads of the CPU executor.
+     * @param ioMode     How the I/O executor runs its tasks.
+     */
+    public ExecutorTopology(String agency, int cpuThreads, IoMode ioMode) {
+        if (cpuThreads < 1) {
+            throw new IllegalArgumentException("cpuThreads must be positive: " + cpuThreads);
+        }
+        ThreadFactory cpuThreadFactory = Thread.ofPlatform().name(agency + "-cpu-", 0).daemon().factory();
+        this.cpu = new MeteredExecutor("cpu", new ThreadPoolExecutor(cpuThreads, cpuThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), cpuThreadFactory), cpuThreads);
+        this.io = switch (ioMode) {
+            case VIRTUAL -> new MeteredExecutor("io-virtual",
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(agency + "-io-", 0).factory()), 0);
+            case ELASTIC -> new MeteredExecutor("io-elastic",
+                    Executors.newCachedThreadPool(Thread.ofPlatform().name(agency + "-io-", 0).daemon().factory()), 0);
+        };
+    }
+
+    /**
+     * Creates the executors of an agency as configured by the {@code travel.<agency>.cpu.threads} (one per core by
+     * default) and {@code travel.<agency>.io} ({@code virtual} by default) system properties.
+     *
+     * @param agency The name of the agency, e.g. {@code async}.
+     * @return The executors of the agency.
+     */
+    public static ExecutorTopology forAgency(String agency) {
+        int cpuThreads = Integer.getInteger("travel." + agency + ".cpu.threads", Runtime.getRuntime().availableProcessors());
+        IoMode ioMode = IoMode.byName(System.getProperty("travel." + agency + ".io", IoMode.VIRTUAL.name()));
+        return new ExecutorTopology(agency, cpuThreads, ioMode);
+    }
+
+    /**
+     * Returns the executor for CPU-bound work, bounded to its number of threads.
+     *
+     * @return The CPU executor.
+     */
+    public MeteredExecutor cpu() {
+        return cpu;
+    }
+
+    /**
+     * Returns the executor for blocking I/O.
+     *
+     * @return The I/O executor.
+     */
+    public MeteredExecutor io() {
+        return io;
+    }
+
+    /**
+     * Stops both executors, interrupting the tasks that are still running.
+     */
+    public void shutdownNow() {
+        cpu.delegate.shutdownNow();
+        io.delegate.shutdownNow();
+    }
+
+    /**
+     * Stops accepting tasks and waits for the submitted ones to complete.
+     */
+    @Override
+    public void close() {
+        cpu.delegate.close();
+        io.delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return cpu + ", " + io;
+    }
+
+    /**
+     * An executor counting its tasks, so its queue depth and utilisation can be reported.
+     * <p>
+     * A task is counted as completed once it returns, which is after any future it completes, so a caller woken by
+     * that future may still see it as active. The counts are a snapshot while tasks run and exact once the executor
+     * has been closed.
+     */
+    public static final class MeteredExecutor implements Executor {
+
+        private final String name;
+        private final ExecutorService delegate;
+        private final int threads;
+        private final long createdNanos = System.nanoTime();
+
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder started = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+
+        /**
+         * Creates an executor counting the tasks it hands to the delegate.
+         *
+         * @param name     The name of the executor in the metrics.
+         * @param delegate The executor running the tasks.
+         * @param threads  The number of threads of the delegate, or 0 if it has no fixed size.
+         */
+        MeteredExecutor(String name, ExecutorService delegate, int threads) {
+            this.name = name;
+            this.delegate = delegate;
+            this.threads = threads;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            submitted.increment();
+            try {
+                delegate.execute(() -> {
+                    started.increment();
+                    long start = System.nanoTime();
+                    try {
+                        task.run();
+                    } finally {
+                        busyNanos.add(System.nanoTime() - start);
+                        completed.increment();
+                    }
+                });
+            } catch (RuntimeException e) {
+                submitted.decrement();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the number of tasks submitted but not started yet.
+         *
+         * @return The queue depth.
+         */
+        public long queueDepth() {
+            return Math.max(0, submitted.sum() - started.sum());
+        }
+
+        /**
+         * Returns the number of tasks running.
+         *
+         * @return The number of active tasks.
+         */
+        public long active() {
+            return Math.max(0, started.sum() - completed.sum());
+        }
+
+        /**
+         * Returns the number of tasks completed.
+         *
+         * @return The number of completed tasks.
+         */
+        public long completed() {
+            return completed.sum();
+        }
+
+        /**
+         * Returns the average number of tasks running at once since the executor was created.
+         *
+         * @return The time spent running tasks divided by the age of the executor.
+         */
+        public double averageConcurrency() {
+            return (double) busyNanos.sum() / Math.max(1, System.nanoTime() - createdNanos);
+        }
+
+        /**
+         * Returns the fraction of the capacity of a fixed-size executor used since it was created.
+         *
+         * @return The average concurrency divided by the number of threads, or {@code NaN} without a fixed size.
+         */
+        public double utilisation() {
+            return threads > 0 ? averageConcurrency() / threads : Double.NaN;
+        }
+
+        @Override
+        public String toString() {
+            String load = threads > 0
+                    ? "threads=" + threads + ", utilisation=" + String.format("%.1f%%", utilisation() * 100)
+                    : "averageConcurrency=" + String.format("%.2f", averageConcurrency());
+            return name + " [" + load + ", queued=" + queueDepth() + ", active=" + active()
+                    + ", completed=" + completed() + "]";
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.doksanbir;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs the tasks on a fixed-size pool of platform threads, as {@link ThreadedTravelAgency} does.
+ * The pool is created once and reused for every call until the strategy is closed.
+ */
+public class FixedThreadPoolExecutionStrategy implements ExecutionStrategy {
+
+    static final String NAME = "fixed-pool";
+
+    private final ExecutorService executorService;
+
+    /**
+     * Creates a strategy backed by a pool with the given number of threads.
+     *
+     * @param threads The number of platform threads in the pool.
+     */
+    public FixedThreadPoolExecutionStrategy(int threads) {
+        this.executorService = Executors.newFixedThreadPool(threads);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public <T, R> List<R> executeAll(List<T> tasks, Function<? super T, ? extends R> action) {
+        List<Future<? extends R>> futures = new ArrayList<>(tasks.size());
+        for (T task : tasks) {
+            futures.add(executorService.submit(() -> action.apply(task)));
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<? extends R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw ExecutionStrategies.propagate(e);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw ExecutionStrategies.interrupted(e);
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,60 @@
+package org.doksanbir;
+
+/**
+ * Selects the simulated weather forecast of a destination without allocating.
+ * The agencies used to pick the forecast with {@code new Random(destination.hashCode()).nextInt(conditions.length)},
+ * which allocates a generator and its atomic seed on every call only to draw a single number. The forecast only
+ * depends on the destination hash, so the selector runs the same linear congruential step on a local {@code long}
+ * instead: the result is the condition {@link java.util.Random} would have chosen, computed with a few arithmetic
+ * operations. The destination hash itself is cached by {@link String}.
+ */
+final class ForecastSelector {
+
+    /**
+     * The multiplier of the {@link java.util.Random} generator.
+     */
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+
+    /**
+     * The increment of the {@link java.util.Random} generator.
+     */
+    private static final long ADDEND = 0xBL;
+
+    private static final long MASK = (1L << 48) - 1;
+
+    private ForecastSelector() {
+    }
+
+    /**
+     * Returns the forecast of the destination, which only depends on its name.
+     *
+     * @param destination The name of the travel destination.
+     * @param conditions  The weather conditions to choose from.
+     * @return The weather condition of the destination.
+     */
+    static String select(String destination, String[] conditions) {
+        return conditions[indexOf(destination.hashCode(), conditions.length)];
+    }
+
+    /**
+     * Returns the first value {@code new Random(seed).nextInt(bound)} would return.
+     *
+     * @param seed  The seed, the destination hash.
+     * @param bound The number of weather conditions.
+     * @return The index of the weather condition, between 0 and {@code bound - 1}.
+     */
+    static int indexOf(long seed, int bound) {
+        long state = (seed ^ MULTIPLIER) & MASK;
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        int r = (int) (state >>> 17);
+        if ((bound & -bound) == bound) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        // Rejection loop of Random.nextInt, so every index is equally likely
+        for (int u = r; u - (r = u % bound) + bound - 1 < 0; ) {
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            u = (int) (state >>> 17);
+        }
+        return r;
+    }
+}
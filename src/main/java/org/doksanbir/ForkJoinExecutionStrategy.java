@@ -0,0 +1,64 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Runs the tasks as a parallel stream inside a dedicated {@link ForkJoinPool}, like the pages of {@link ParallelTravelAgency}.
+ * The pool is created once and reused for every call until the strategy is closed, instead of creating a pool per page.
+ */
+public class ForkJoinExecutionStrategy implements ExecutionStrategy {
+
+    static final String NAME = "fork-join";
+
+    private final ForkJoinPool forkJoinPool;
+    private final boolean ownsPool;
+
+    /**
+     * Creates a strategy backed by a fork-join pool with the given parallelism.
+     *
+     * @param parallelism The target parallelism of the pool.
+     */
+    public ForkJoinExecutionStrategy(int parallelism) {
+        this(new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Creates a strategy running its tasks on a pool shared with other users, which closing the strategy leaves running.
+     *
+     * @param forkJoinPool The pool running the tasks.
+     */
+    public ForkJoinExecutionStrategy(ForkJoinPool forkJoinPool) {
+        this(forkJoinPool, false);
+    }
+
+    private ForkJoinExecutionStrategy(ForkJoinPool forkJoinPool, boolean ownsPool) {
+        this.forkJoinPool = forkJoinPool;
+        this.ownsPool = ownsPool;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public <T, R> List<R> executeAll(List<T> tasks, Function<? super T, ? extends R> action) {
+        try {
+            return forkJoinPool.submit(() -> tasks.parallelStream().<R>map(action).toList()).get();
+        } catch (ExecutionException e) {
+            throw ExecutionStrategies.propagate(e);
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            forkJoinPool.shutdown();
+        }
+    }
+}
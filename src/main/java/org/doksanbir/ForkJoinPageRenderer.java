@@ -0,0 +1,173 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Renders the destinations of a travel page with explicit fork-join tasks on a long-lived pool.
+ * <p>
+ * The page is a {@link RecursiveTask} over a range of the destination list, such as a {@link DestinationCatalog},
+ * which forks its left half and computes its right half until a range holds at most {@code threshold} destinations.
+ * Those are rendered one after the other by the worker, and idle workers steal the forked halves. A threshold of 1
+ * suits the legacy pages, where every destination waits for the network; larger catalogs with cheaper destinations
+ * amortize the task overhead with a larger threshold, set with the {@code travel.render.threshold} system property.
+ * <p>
+ * Work that blocks, like the weather fetch, should go through {@link #blocking(Supplier)}: it tells the pool that
+ * the worker is about to block, so the pool can start a compensating worker and keep its parallelism.
+ */
+final class ForkJoinPageRenderer {
+
+    /**
+     * The system property setting the largest number of destinations rendered by a single task.
+     */
+    static final String THRESHOLD_PROPERTY = "travel.render.threshold";
+
+    static final int DEFAULT_THRESHOLD = 1;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Creates a renderer running its tasks on the given pool, which it does not own.
+     *
+     * @param pool      The pool running the tasks, shared by every page.
+     * @param threshold The largest number of destinations rendered by a single task.
+     */
+    ForkJoinPageRenderer(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the split threshold set with the {@code travel.render.threshold} system property.
+     *
+     * @return The configured threshold, or {@link #DEFAULT_THRESHOLD}.
+     */
+    static int configuredThreshold() {
+        return Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Renders every destination, waiting at most until the page deadline. Once the deadline has passed no further
+     * destination is started; the ones being rendered at that moment finish in the background.
+     *
+     * @param destinations The destinations of the page, such as its names or its trips.
+     * @param renderer     Renders a single destination.
+     * @param deadline     The deadline of the travel page.
+     * @param <T>          The type of the destinations.
+     * @return The number of destinations rendered by the deadline.
+     */
+    <T> int render(List<T> destinations, Consumer<? super T> renderer, PageDeadline deadline) {
+        Page<T> page = new Page<>(destinations, renderer, threshold);
+        RenderTask<T> root = new RenderTask<>(page, 0, destinations.size());
+        pool.execute(root);
+        if (deadline.await(root) == null) {
+            page.cancelled = true;
+            root.cancel(false);
+        }
+        return page.rendered.get();
+    }
+
+    /**
+     * Runs a blocking call as a {@link ForkJoinPool.ManagedBlocker}. On a worker of a fork-join pool the pool may
+     * start a spare worker while the call blocks; on any other thread the call simply runs.
+     *
+     * @param call The blocking call.
+     * @param <T>  The type of the result.
+     * @return The result of the call.
+     */
+    static <T> T blocking(Supplier<T> call) {
+        Blocker<T> blocker = new Blocker<>(call);
+        try {
+            ForkJoinPool.managedBlock(blocker);
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
+        }
+        return blocker.result;
+    }
+
+    /**
+     * The state of one page shared by all of its tasks.
+     */
+    private static final class Page<T> {
+
+        final List<T> destinations;
+        final Consumer<? super T> renderer;
+        final int threshold;
+        final AtomicInteger rendered = new AtomicInteger();
+        volatile boolean cancelled;
+
+        Page(List<T> destinations, Consumer<? super T> renderer, int threshold) {
+            this.destinations = destinations;
+            this.renderer = renderer;
+            this.threshold = threshold;
+        }
+    }
+
+    /**
+     * Renders the destinations in {@code [from, to)}, splitting the range in halves above the threshold.
+     */
+    private static final class RenderTask<T> extends RecursiveTask<Integer> {
+
+        private final Page<T> page;
+        private final int from;
+        private final int to;
+
+        RenderTask(Page<T> page, int from, int to) {
+            this.page = page;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= page.threshold) {
+                int rendered = 0;
+                for (int i = from; i < to && !page.cancelled; i++) {
+                    page.renderer.accept(page.destinations.get(i));
+                    page.rendered.incrementAndGet();
+                    rendered++;
+                }
+                return rendered;
+            }
+            int middle = (from + to) >>> 1;
+            RenderTask<T> left = new RenderTask<>(page, from, middle);
+            left.fork();
+            int right = new RenderTask<>(page, middle, to).compute();
+            return right + left.join();
+        }
+    }
+
+    /**
+     * Runs a call once and keeps its result.
+     */
+    private static final class Blocker<T> implements ForkJoinPool.ManagedBlocker {
+
+        private final Supplier<T> call;
+        private T result;
+        private boolean done;
+
+        Blocker(Supplier<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public boolean block() {
+            result = call.get();
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.doksanbir;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuts the tail latency of another {@link WeatherClient} with hedged requests.
+ * Every lookup starts a primary call. If it has not returned after the configured percentile of recent call
+ * latencies (p95 by default), an identical backup call is started and whichever finishes first is used; the other
+ * one is cancelled by interrupting its thread. A single slow backend call therefore costs about one p95 plus one
+ * typical latency instead of stalling the whole travel page, for roughly {@code 1 - percentile} extra calls.
+ * <p>
+ * Hedging starts once {@code minSamples} calls have been observed, so the percentile is meaningful. A call cancelled
+ * because it lost the race is recorded with the time it ran until then, a lower bound of its latency: leaving out the
+ * slow calls would pull the percentile down and make hedges ever earlier and more frequent.
+ * A failed call fails the lookup unless the other call is still running. Bulk lookups are passed through without
+ * hedging, since their latency is not comparable with single lookups.
+ * <p>
+ * Calls run on virtual threads; the client must be closed when no longer used.
+ */
+public class HedgingWeatherClient implements WeatherClient, AutoCloseable {
+
+    /**
+     * The default percentile of recent latencies after which a backup call is started.
+     */
+    static final double DEFAULT_PERCENTILE = 0.95;
+
+    /**
+     * The default number of recent latencies the percentile is computed from.
+     */
+    static final int DEFAULT_WINDOW_SIZE = 1_000;
+
+    /**
+     * The default number of latencies observed before the first hedge.
+     */
+    static final int DEFAULT_MIN_SAMPLES = 20;
+
+    private final WeatherClient delegate;
+    private final double percentile;
+    private final int minSamples;
+    private final LatencyWindow latencies;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("weather-hedge-", 0).factory());
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgesIssued = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    /**
+     * Creates a client hedging after the p95 latency.
+     *
+     * @param delegate The client making the backend calls.
+     */
+    public HedgingWeatherClient(WeatherClient delegate) {
+        this(delegate, DEFAULT_PERCENTILE);
+    }
+
+    /**
+     * Creates a client hedging after the given percentile.
+     *
+     * @param delegate   The client making the backend calls.
+     * @param percentile The percentile of recent latencies, e.g. {@code 0.95}, after which a backup call is started.
+     */
+    public HedgingWeatherClient(WeatherClient delegate, double percentile) {
+        this(delegate, percentile, DEFAULT_WINDOW_SIZE, DEFAULT_MIN_SAMPLES);
+    }
+
+    HedgingWeatherClient(WeatherClient delegate, double percentile, int windowSize, int minSamples) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1: " + percentile);
+        }
+        this.delegate = delegate;
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.latencies = new LatencyWindow(windowSize);
+    }
+
+    @Override
+    public String fetchForecast(String destination) {
+        CompletableFuture<String> forecast = fetchForecastAsync(destination);
+        try {
+            return forecast.get();
+        } catch (ExecutionException e) {
+            throw ExecutionStrategies.propagate(e);
+        } catch (InterruptedException e) {
+            forecast.cancel(true);
+            throw ExecutionStrategies.interrupted(e);
+        }
+    }
+
+    /**
+     * Passes the bulk lookup to the delegate without hedging.
+     */
+    @Override
+    public Map<String, String> fetchForecasts(Collection<String> destinations) {
+        return delegate.fetchForecasts(destinations);
+    }
+
+    /**
+     * Starts the primary call and schedules the backup call without blocking the caller.
+     * Cancelling the returned future cancels all calls of the lookup.
+     *
+     * @param destination The name of the travel destination.
+     * @return A future completed with the forecast of the first call to succeed.
+     */
+    public CompletableFuture<String> fetchForecastAsync(String destination) {
+        requests.increment();
+        HedgedLookup lookup = new HedgedLookup(destination);
+        lookup.start(false);
+        long hedgeDelayNanos = hedgeDelayNanos();
+        if (hedgeDelayNanos >= 0) {
+            CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS, executor)
+                    .execute(lookup::hedge);
+        }
+        return lookup.result;
+    }
+
+    /**
+     * Returns the time after which a backup call is started.
+     *
+     * @return The configured percentile of recent latencies in nanoseconds, or -1 while there are too few samples.
+     */
+    long hedgeDelayNanos() {
+        return latencies.size() < minSamples ? -1 : latencies.percentile(percentile);
+    }
+
+    /**
+     * Returns the number of latencies in the window.
+     *
+     * @return The number of recorded calls, at most the window size.
+     */
+    int samples() {
+        return latencies.size();
+    }
+
+    /**
+     * The primary and backup calls of one lookup.
+     */
+    private final class HedgedLookup {
+
+        private final String destination;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final List<Future<?>> calls = new CopyOnWriteArrayList<>();
+
+        /**
+         * The number of calls started and not yet failed; the lookup fails when the last running call fails.
+         */
+        private final AtomicInteger running = new AtomicInteger();
+
+        HedgedLookup(String destination) {
+            this.destination = destination;
+            result.whenComplete((forecast, failure) -> calls.forEach(call -> call.cancel(true)));
+        }
+
+        void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            hedgesIssued.increment();
+            start(true);
+        }
+
+        void start(boolean backup) {
+            running.incrementAndGet();
+            Future<?> call = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    String forecast = delegate.fetchForecast(destination);
+                    latencies.record(System.nanoTime() - start);
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    if (result.complete(forecast) && backup) {
+                        hedgesWon.increment();
+                    }
+                } catch (RuntimeException | Error e) {
+                    if (result.isDone()) {
+                        // Cancelled after the other call won: it took at least this long
+                        latencies.record(System.nanoTime() - start);
+                    }
+                    if (running.decrementAndGet() == 0) {
+                        result.completeExceptionally(e);
+                    }
+                }
+            });
+            calls.add(call);
+            if (result.isDone()) {
+                call.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of lookups so far.
+     *
+     * @return The number of single lookups, hedged or not.
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the number of backup calls started so far.
+     *
+     * @return The number of hedges issued.
+     */
+    public long hedgesIssued() {
+        return hedgesIssued.sum();
+    }
+
+    /**
+     * Returns the number of lookups answered by their backup call.
+     *
+     * @return The number of hedges that finished before their primary call.
+     */
+    public long hedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    @Override
+    public String toString() {
+        long hedgeDelayNanos = hedgeDelayNanos();
+        return "HedgingWeatherClient[requests=" + requests.sum() + ", hedgesIssued=" + hedgesIssued.sum()
+                + ", hedgesWon=" + hedgesWon.sum() + ", hedgeDelayMs="
+                + (hedgeDelayNanos < 0 ? "n/a" : String.format("%.1f", hedgeDelayNanos / 1e6)) + "]";
+    }
+
+    /**
+     * Cancels running calls and stops the executor.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,224 @@
+package org.doksanbir;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches forecasts from a weather backend over HTTP with OkHttp, for example from a {@link LocalWeatherServer}.
+ * <ul>
+ *   <li><b>Connection pooling and keep-alive:</b> idle connections are kept for {@link #KEEP_ALIVE} and reused, so
+ *   steady traffic does not pay for a TCP handshake per call.</li>
+ *   <li><b>Concurrency:</b> the dispatcher allows {@link #MAX_CONCURRENT_REQUESTS} asynchronous calls in flight,
+ *   to a single host as well, instead of OkHttp's default of five per host.</li>
+ *   <li><b>HTTP/2:</b> HTTPS backends negotiate HTTP/2 automatically and multiplex all calls over one connection.
+ *   Cleartext backends speaking HTTP/2 (h2c) can be used with {@code http2PriorKnowledge}.</li>
+ *   <li><b>Timeouts:</b> every call, including connecting, waiting and reading the body, is bounded by the call
+ *   timeout.</li>
+ * </ul>
+ * Every call, blocking or not, is run by the OkHttp dispatcher on platform threads; blocking methods wait for the
+ * result. OkHttp still holds monitors around blocking socket operations, so running its code on virtual threads pins
+ * their carriers and can deadlock once all carriers are pinned. Callers on virtual threads only park on a future.
+ * <p>
+ * Non-successful responses fail with an {@link IllegalStateException}; network failures and timeouts with an
+ * {@link UncheckedIOException}.
+ */
+public class HttpWeatherClient implements WeatherClient, AutoCloseable {
+
+    /**
+     * The default bound on the duration of a call.
+     */
+    static final Duration DEFAULT_CALL_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * The maximum number of asynchronous calls in flight, in total and per host.
+     */
+    static final int MAX_CONCURRENT_REQUESTS = 256;
+
+    /**
+     * The maximum number of idle connections kept in the pool.
+     */
+    static final int MAX_IDLE_CONNECTIONS = 64;
+
+    /**
+     * How long an idle connection is kept for reuse.
+     */
+    static final Duration KEEP_ALIVE = Duration.ofMinutes(5);
+
+    private static final MediaType TEXT = MediaType.get("text/plain; charset=utf-8");
+
+    private final HttpUrl forecastUrl;
+    private final HttpUrl forecastsUrl;
+    private final ExecutorService dispatcherExecutor;
+    private final OkHttpClient httpClient;
+
+    /**
+     * Creates a client using HTTP/1.1 or ALPN-negotiated HTTP/2 and the default call timeout.
+     *
+     * @param baseUrl The base URL of the weather backend, e.g. {@code http://localhost:8080}.
+     */
+    public HttpWeatherClient(String baseUrl) {
+        this(baseUrl, DEFAULT_CALL_TIMEOUT, false);
+    }
+
+    /**
+     * Creates a client with the given call timeout.
+     *
+     * @param baseUrl             The base URL of the weather backend, e.g. {@code http://localhost:8080}.
+     * @param callTimeout         The bound on the duration of a call.
+     * @param http2PriorKnowledge Whether to speak HTTP/2 over cleartext without negotiation; the backend must
+     *                            support h2c.
+     */
+    public HttpWeatherClient(String baseUrl, Duration callTimeout, boolean http2PriorKnowledge) {
+        HttpUrl base = HttpUrl.get(baseUrl);
+        this.forecastUrl = base.resolve(LocalWeatherServer.FORECAST_PATH);
+        this.forecastsUrl = base.resolve(LocalWeatherServer.FORECASTS_PATH);
+        this.dispatcherExecutor = Executors.newCachedThreadPool(Thread.ofPlatform().name("weather-http-", 0).daemon().factory());
+        Dispatcher dispatcher = new Dispatcher(dispatcherExecutor);
+        dispatcher.setMaxRequests(MAX_CONCURRENT_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_CONCURRENT_REQUESTS);
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE.toNanos(), TimeUnit.NANOSECONDS))
+                .callTimeout(callTimeout)
+                .retryOnConnectionFailure(true);
+        if (http2PriorKnowledge) {
+            builder.protocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+        }
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * Fetches the forecast and waits for it.
+     */
+    @Override
+    public String fetchForecast(String destination) {
+        return await(fetchForecastAsync(destination));
+    }
+
+    /**
+     * Fetches the forecasts of all destinations with one call to the bulk endpoint and waits for them.
+     */
+    @Override
+    public Map<String, String> fetchForecasts(Collection<String> destinations) {
+        if (destinations.isEmpty()) {
+            return Map.of();
+        }
+        Request request = new Request.Builder()
+                .url(forecastsUrl)
+                .post(RequestBody.create(String.join("\n", destinations), TEXT))
+                .build();
+        String body = await(enqueue(request, destinations.size() + " destinations"));
+        Map<String, String> forecasts = new LinkedHashMap<>();
+        body.lines().forEach(line -> {
+            int separator = line.indexOf('\t');
+            if (separator > 0) {
+                forecasts.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        });
+        return forecasts;
+    }
+
+    /**
+     * Fetches the forecast without blocking the caller.
+     * Cancelling the returned future cancels the HTTP call.
+     *
+     * @param destination The name of the travel destination.
+     * @return A future completed with the forecast.
+     */
+    public CompletableFuture<String> fetchForecastAsync(String destination) {
+        HttpUrl url = forecastUrl.newBuilder().addQueryParameter(LocalWeatherServer.DESTINATION_PARAMETER, destination).build();
+        return enqueue(new Request.Builder().url(url).get().build(), destination);
+    }
+
+    /**
+     * Hands the request to the OkHttp dispatcher.
+     *
+     * @return A future completed with the response body, whose cancellation cancels the call.
+     */
+    private CompletableFuture<String> enqueue(Request request, String subject) {
+        Call call = httpClient.newCall(request);
+        CompletableFuture<String> body = new CompletableFuture<>();
+        body.whenComplete((result, failure) -> {
+            if (body.isCancelled()) {
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    body.complete(readBody(response, subject));
+                } catch (IOException e) {
+                    onFailure(call, e);
+                } catch (RuntimeException e) {
+                    body.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                body.completeExceptionally(new UncheckedIOException("Weather call failed for " + subject, e));
+            }
+        });
+        return body;
+    }
+
+    private static String await(CompletableFuture<String> body) {
+        try {
+            return body.get();
+        } catch (ExecutionException e) {
+            throw ExecutionStrategies.propagate(e);
+        } catch (InterruptedException e) {
+            body.cancel(true);
+            throw ExecutionStrategies.interrupted(e);
+        }
+    }
+
+    private static String readBody(Response response, String subject) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new IllegalStateException("Weather backend returned HTTP " + response.code() + " for " + subject);
+        }
+        return response.body().string();
+    }
+
+    /**
+     * Returns the number of connections currently held by the pool, to check that connections are reused.
+     *
+     * @return The number of pooled connections, idle or in use.
+     */
+    public int connectionCount() {
+        return httpClient.connectionPool().connectionCount();
+    }
+
+    /**
+     * Stops the dispatcher and closes the pooled connections.
+     */
+    @Override
+    public void close() {
+        httpClient.dispatcher().cancelAll();
+        dispatcherExecutor.shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+}
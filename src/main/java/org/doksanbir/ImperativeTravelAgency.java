@@ -1,6 +1,6 @@
 package org.doksanbir;
 
-import lombok.extern.slf4j.Slf4j;
+import lombok.CustomLog;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
@@ -13,26 +13,24 @@ import java.util.Random;
  * It displays a travel page with destinations, weather forecasts, and sample quotations for a random number of days and people.
  * It also monitors performance metrics like execution time, memory usage, and garbage collection.
  */
-@Slf4j
-public class ImperativeTravelAgency {
+@CustomLog
+public class ImperativeTravelAgency implements TravelAgency {
 
     /**
      * The number of travel destinations available.
      */
-    private static final int DESTINATION_COUNT = 50;
+    private static final int DESTINATION_COUNT = TravelAgencyEngine.DEFAULT_DESTINATION_COUNT;
 
     /**
-     * The base price per day for travel.
+     * An array containing names of all travel destinations.
      */
-    private static final double BASE_RATE = 100.0;
+    private static final String[] DESTINATIONS = new String[DESTINATION_COUNT];
+    static final String[] WEATHER_CONDITIONS = TravelAgencyEngine.WEATHER_CONDITIONS;
 
     /**
-     * An array containing names of all travel destinations.
+     * Prices the trips and fetches the forecasts from the simulated weather service, one after the other.
      */
-    private static final String[] DESTINATIONS = new String[DESTINATION_COUNT];
-    static final String[] WEATHER_CONDITIONS = {
-            "Sunny", "Cloudy", "Rainy", "Stormy", "Snowy", "Windy", "Foggy", "Icy"
-    };
+    private final TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential());
 
     static {
         for (int i = 0; i < DESTINATION_COUNT; i++) {
@@ -48,35 +46,21 @@ public class ImperativeTravelAgency {
      * @param people      The number of people traveling.
      * @return The calculated quotation for the trip.
      */
+    @Override
     public double getQuotation(String destination, int days, int people) {
-        double rate = BASE_RATE * (1 + getDestinationRateMultiplier(destination));
-        return rate * days * people;
+        return engine.getQuotation(destination, days, people);
     }
 
     /**
-     * Simulates a network call to fetch the weather forecast for the specified destination.
-     * This method introduces a delay of 200 milliseconds for demonstration purposes.
+     * Fetches the weather forecast for the specified destination from the simulated weather service, which answers
+     * after 200 milliseconds.
      *
      * @param destination The name of the travel destination.
-     * @return A randomly chosen weather condition from the available options.
+     * @return The weather condition forecast for the destination.
      */
+    @Override
     public String getWeatherForecast(String destination) {
-        simulateNetworkCall();
-        Random random = new Random(destination.hashCode());
-        return WEATHER_CONDITIONS[random.nextInt(WEATHER_CONDITIONS.length)];
-    }
-
-    /**
-     * Simulates a network call with a 200ms delay.
-     * This method is used by getWeatherForecast for demonstration purposes.
-     */
-    private void simulateNetworkCall() {
-        try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Thread was interrupted during simulateNetworkCall", e);
-        }
+        return engine.getWeatherForecast(destination);
     }
 
     /**
@@ -87,24 +71,18 @@ public class ImperativeTravelAgency {
      * @return A multiplier for the base rate based on the destination.
      */
     double getDestinationRateMultiplier(String destination) {
-        return fib(Math.abs(destination.hashCode()) % 30);
+        return engine.getDestinationRateMultiplier(destination);
     }
 
     /**
-     * Calculates the nth Fibonacci number (used for the destination rate multiplier).
-     * This method is used by getDestinationRateMultiplier for demonstration purposes.
+     * Returns the nth Fibonacci number (used for the destination rate multiplier).
+     * The value is looked up in the precomputed table of {@link RateMultipliers}.
      *
-     * @param n The index of the Fibonacci number to calculate.
+     * @param n The index of the Fibonacci number to return.
      * @return The nth Fibonacci number.
      */
     private double fib(int n) {
-        double[] fibCache = new double[n + 2];
-        fibCache[0] = 0;
-        fibCache[1] = 1;
-        for (int i = 2; i <= n; i++) {
-            fibCache[i] = fibCache[i - 1] + fibCache[i - 2];
-        }
-        return fibCache[n];
+        return RateMultipliers.fibonacci(n);
     }
 
     /**
@@ -0,0 +1,83 @@
+package org.doksanbir;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes the travel page as a JSON object with a {@code destinations} array, one destination object per line.
+ * A quotation that is not available is written as {@code null}.
+ */
+public class JsonTravelPageSink implements TravelPageSink {
+
+    static final String NAME = "json";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public DestinationWriter open(WritableByteChannel channel) throws IOException {
+        ChannelWriter writer = new ChannelWriter(channel);
+        StringBuilder line = new StringBuilder(160);
+        writer.putText("{\"destinations\":[\n");
+        return new DestinationWriter() {
+
+            /**
+             * Whether a destination has been written, so the next one is preceded by a separator.
+             */
+            private boolean written;
+
+            @Override
+            public void write(DestinationResult result) throws IOException {
+                line.setLength(0);
+                if (written) {
+                    line.append(",\n");
+                }
+                line.append("{\"destination\":");
+                appendString(line, result.destination());
+                line.append(",\"weather\":");
+                appendString(line, result.weather());
+                line.append(",\"days\":").append(result.days())
+                        .append(",\"people\":").append(result.people())
+                        .append(",\"quotation\":");
+                if (Double.isNaN(result.quotation())) {
+                    line.append("null");
+                } else {
+                    line.append(result.quotation());
+                }
+                line.append(",\"degraded\":").append(result.degraded()).append('}');
+                writer.putText(line);
+                written = true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.putText(written ? "\n]}\n" : "]}\n");
+                writer.flush();
+            }
+        };
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
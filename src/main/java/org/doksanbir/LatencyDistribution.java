@@ -0,0 +1,74 @@
+package org.doksanbir;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * The distribution of the response times of a simulated backend, used by {@link LocalWeatherServer} to delay its
+ * responses. Real backends rarely answer in a constant time: most calls are close to the median and a few are much
+ * slower, which is what makes tail latency matter. The log-normal distribution models that shape.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Draws the latency of one call.
+     *
+     * @param random The source of randomness.
+     * @return The latency in nanoseconds, never negative.
+     */
+    long sampleNanos(RandomGenerator random);
+
+    /**
+     * Returns a distribution without any latency.
+     *
+     * @return A distribution always returning zero.
+     */
+    static LatencyDistribution none() {
+        return random -> 0L;
+    }
+
+    /**
+     * Returns a distribution where every call takes the same time.
+     *
+     * @param latency The latency of every call.
+     * @return A constant distribution.
+     */
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * Returns a distribution where every latency in the range is equally likely.
+     *
+     * @param min The minimum latency, inclusive.
+     * @param max The maximum latency, exclusive.
+     * @return A uniform distribution.
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        if (maxNanos <= minNanos) {
+            throw new IllegalArgumentException("max must be greater than min: min=" + min + ", max=" + max);
+        }
+        return random -> random.nextLong(minNanos, maxNanos);
+    }
+
+    /**
+     * Returns a log-normal distribution, the usual model of network and service latencies: half of the calls are
+     * faster than the median and the others form a long tail whose length grows with {@code sigma}.
+     * With {@code sigma = 0.5}, the p99 is about 3.2 times the median.
+     *
+     * @param median The median latency.
+     * @param sigma  The standard deviation of the logarithm of the latency.
+     * @return A log-normal distribution.
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        if (sigma < 0) {
+            throw new IllegalArgumentException("sigma must not be negative: " + sigma);
+        }
+        double medianNanos = median.toNanos();
+        return random -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+}
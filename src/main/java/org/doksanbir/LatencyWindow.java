@@ -0,0 +1,97 @@
+package org.doksanbir;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the latencies of the most recent calls and answers percentile queries over them.
+ * Samples are stored in a ring buffer, so old latencies age out as the backend changes. Sorting the window is
+ * amortized: the percentile is recomputed only after a number of new samples and served from a cached value otherwise,
+ * also while the window is still filling up.
+ */
+final class LatencyWindow {
+
+    private final long[] samples;
+    private final int recomputeInterval;
+
+    /**
+     * Guards all mutable state.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private int size;
+    private int next;
+    private int samplesSinceSort;
+
+    /**
+     * The samples of the window at the last sort, in ascending order.
+     */
+    private long[] sorted = new long[0];
+
+    /**
+     * Creates an empty window.
+     *
+     * @param capacity The number of most recent samples kept.
+     */
+    LatencyWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.samples = new long[capacity];
+        this.recomputeInterval = Math.max(1, capacity / 10);
+    }
+
+    /**
+     * Adds the latency of a call, replacing the oldest sample once the window is full.
+     *
+     * @param latencyNanos The latency in nanoseconds.
+     */
+    void record(long latencyNanos) {
+        lock.lock();
+        try {
+            samples[next] = latencyNanos;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+            samplesSinceSort++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of samples in the window.
+     *
+     * @return The number of samples, at most the capacity.
+     */
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the latency below which the given fraction of the calls in the window completed.
+     *
+     * @param percentile The percentile as a fraction, e.g. {@code 0.95} for the p95.
+     * @return The latency in nanoseconds, or -1 if the window is empty.
+     */
+    long percentile(double percentile) {
+        lock.lock();
+        try {
+            if (size == 0) {
+                return -1;
+            }
+            if (sorted.length == 0 || samplesSinceSort >= recomputeInterval) {
+                sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                samplesSinceSort = 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        } finally {
+            lock.unlock();
+        }
+    }
+}
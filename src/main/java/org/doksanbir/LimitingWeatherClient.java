@@ -0,0 +1,74 @@
+package org.doksanbir;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of concurrent calls to another {@link WeatherClient} with an {@link AdaptiveConcurrencyLimiter}.
+ * The latency of every call feeds the limiter, and a call throwing an exception counts as dropped, so the limit
+ * follows the capacity of the backend instead of a hand-tuned constant. Calls cancelled by interrupting their thread,
+ * such as the losing call of a hedged lookup, are left out.
+ * A bulk lookup is a single backend call and takes a single permit.
+ */
+public class LimitingWeatherClient implements WeatherClient {
+
+    private final WeatherClient delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    /**
+     * Creates a client sharing the given limiter, so several clients of the same backend respect one limit.
+     *
+     * @param delegate The client making the backend calls.
+     * @param limiter  The limiter of the backend.
+     */
+    public LimitingWeatherClient(WeatherClient delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public String fetchForecast(String destination) {
+        return limited(() -> delegate.fetchForecast(destination));
+    }
+
+    @Override
+    public Map<String, String> fetchForecasts(Collection<String> destinations) {
+        return limited(() -> delegate.fetchForecasts(destinations));
+    }
+
+    private <T> T limited(Supplier<T> call) {
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = limiter.acquire();
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            if (Thread.currentThread().isInterrupted()) {
+                permit.onIgnored();
+            } else {
+                permit.onDropped();
+            }
+            throw e;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            permit.onIgnored();
+        } else {
+            permit.onSuccess();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the limiter of this client.
+     *
+     * @return The limiter whose limit and counters describe the backend.
+     */
+    public AdaptiveConcurrencyLimiter limiter() {
+        return limiter;
+    }
+}
@@ -0,0 +1,245 @@
+package org.doksanbir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local stand-in for the weather backend, so the {@link HttpWeatherClient} can be measured against a real
+ * HTTP server without any external dependency. It serves the same forecasts as {@link SimulatedWeatherClient} and
+ * delays every response by a latency drawn from a {@link LatencyDistribution}. A configurable fraction of the calls
+ * fails with {@code 503 Service Unavailable}.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code GET /forecast?destination=<name>} returns the forecast as plain text.</li>
+ *   <li>{@code POST /forecasts} takes one destination per line and returns one {@code <name>\t<forecast>} line per
+ *   destination, at the cost of a single latency sample.</li>
+ * </ul>
+ * Every exchange is handled on its own virtual thread, so slow responses do not limit the throughput of the server.
+ * The server speaks HTTP/1.1 with keep-alive.
+ */
+@Slf4j
+public class LocalWeatherServer implements AutoCloseable {
+
+    /**
+     * The path of the single forecast endpoint.
+     */
+    static final String FORECAST_PATH = "/forecast";
+
+    /**
+     * The path of the bulk forecast endpoint.
+     */
+    static final String FORECASTS_PATH = "/forecasts";
+
+    /**
+     * The query parameter naming the destination of the single forecast endpoint.
+     */
+    static final String DESTINATION_PARAMETER = "destination";
+
+    private static final int BACKLOG = 1_024;
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle's algorithm and delayed ACKs every
+        // keep-alive response would then stall for about 40 ms. Must be set before the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Creates and starts a server on a free port of the loopback interface.
+     *
+     * @param latency   The distribution of the response times.
+     * @param errorRate The fraction of the calls, between 0 and 1, answered with an error.
+     */
+    public LocalWeatherServer(LatencyDistribution latency, double errorRate) {
+        this(0, latency, errorRate);
+    }
+
+    /**
+     * Creates and starts a server on the loopback interface.
+     *
+     * @param port      The port to listen on, or 0 for a free port.
+     * @param latency   The distribution of the response times.
+     * @param errorRate The fraction of the calls, between 0 and 1, answered with an error.
+     */
+    public LocalWeatherServer(int port, LatencyDistribution latency, double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1: " + errorRate);
+        }
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("weather-server-", 0).factory());
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the weather server on port " + port, e);
+        }
+        server.setExecutor(executor);
+        server.createContext(FORECAST_PATH, this::handleForecast);
+        server.createContext(FORECASTS_PATH, this::handleForecasts);
+        server.start();
+        log.info("Weather server listening on {}", baseUrl());
+    }
+
+    /**
+     * Returns the URL the weather clients should be configured with.
+     *
+     * @return The base URL of the server, without a trailing slash.
+     */
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private void handleForecast(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!simulateBackend(exchange)) {
+                return;
+            }
+            String destination = queryParameter(exchange, DESTINATION_PARAMETER);
+            if (destination == null) {
+                respond(exchange, 400, "Missing query parameter: " + DESTINATION_PARAMETER);
+                return;
+            }
+            respond(exchange, 200, SimulatedWeatherClient.selectForecast(destination));
+        }
+    }
+
+    private void handleForecasts(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use POST with one destination per line");
+                return;
+            }
+            String body;
+            try (InputStream input = exchange.getRequestBody()) {
+                body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (!simulateBackend(exchange)) {
+                return;
+            }
+            StringBuilder forecasts = new StringBuilder();
+            body.lines().filter(line -> !line.isEmpty()).forEach(destination -> forecasts.append(destination)
+                    .append('\t').append(SimulatedWeatherClient.selectForecast(destination)).append('\n'));
+            respond(exchange, 200, forecasts.toString());
+        }
+    }
+
+    /**
+     * Waits for a sampled latency and decides whether the call fails.
+     *
+     * @return {@code true} if the call should be answered, {@code false} if an error response has been sent.
+     */
+    private boolean simulateBackend(HttpExchange exchange) throws IOException {
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayNanos = latency.sampleNanos(random);
+        if (delayNanos > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(delayNanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Interrupted");
+                errors.increment();
+                return false;
+            }
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            errors.increment();
+            respond(exchange, 503, "Weather backend unavailable");
+            return false;
+        }
+        return true;
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && name.equals(parameter.substring(0, separator))) {
+                return URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Returns the number of calls received so far.
+     *
+     * @return The number of calls to either endpoint.
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the number of calls answered with an error so far.
+     *
+     * @return The number of failed calls.
+     */
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * Stops the server immediately; calls still in progress are aborted.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the server until the JVM is stopped.
+     * Arguments: port (default 8080), median latency in milliseconds (default 200), sigma of the log-normal
+     * latency (default 0.5) and error rate (default 0).
+     *
+     * @param args The optional port, median latency, sigma and error rate.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        long medianMs = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        double sigma = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+        LocalWeatherServer server = new LocalWeatherServer(port,
+                LatencyDistribution.logNormal(Duration.ofMillis(medianMs), sigma), errorRate);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,155 @@
+package org.doksanbir;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The latency budget of one travel page. All waits of a page are bounded by the same absolute deadline, so the page
+ * returns within its budget no matter how many destinations it has: work that is not done by then is rendered with a
+ * fallback value and cancelled.
+ */
+final class PageDeadline {
+
+    /**
+     * The default latency budget of a travel page.
+     */
+    static final Duration DEFAULT_PAGE_BUDGET = Duration.ofSeconds(2);
+
+    private final long deadlineNanos;
+
+    private PageDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Starts the budget of a page.
+     *
+     * @param budget The time the page may take from now.
+     * @return The deadline of the page.
+     */
+    static PageDeadline after(Duration budget) {
+        return new PageDeadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     *
+     * @return The remaining time in nanoseconds, zero once the deadline has passed.
+     */
+    long remainingNanos() {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Returns the deadline as a wall-clock instant, for APIs such as {@code StructuredTaskScope.joinUntil}.
+     *
+     * @return The instant at which the deadline passes.
+     */
+    Instant instant() {
+        return Instant.now().plusNanos(remainingNanos());
+    }
+
+    /**
+     * Waits for the result of the future until the deadline.
+     * A future that has not completed by then, or that failed, yields {@code null} so the caller can render a fallback.
+     * The future itself is left untouched; the caller decides whether to cancel the outstanding work.
+     *
+     * @param future The future to wait for.
+     * @param <T>    The type of the result.
+     * @return The result, or {@code null} if it is not available in time.
+     */
+    <T> T await(Future<T> future) {
+        try {
+            return future.get(remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Returns a copy of the future that completes with the fallback value if the future has not completed by the
+     * deadline, or if it fails. Completing the copy leaves the original future, which may be shared, untouched.
+     *
+     * @param future   The future to bound.
+     * @param fallback The value used when the result is not available in time.
+     * @param <T>      The type of the result.
+     * @return A future completing by the deadline.
+     */
+    <T> CompletableFuture<T> bound(CompletableFuture<T> future, T fallback) {
+        return future.copy()
+                .exceptionally(e -> fallback)
+                .completeOnTimeout(fallback, remainingNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Like {@link #bound}, for futures owned by the caller: once the deadline has passed, the late future is cancelled,
+     * so an asynchronous task that has not started yet never runs.
+     *
+     * @param future   The future to bound, not shared with other callers.
+     * @param fallback The value used when the result is not available in time.
+     * @param <T>      The type of the result.
+     * @return A future completing by the deadline.
+     */
+    <T> CompletableFuture<T> boundOwned(CompletableFuture<T> future, T fallback) {
+        CompletableFuture<T> bounded = bound(future, fallback);
+        bounded.whenComplete((result, failure) -> future.cancel(true));
+        return bounded;
+    }
+
+    /**
+     * Waits until the thread has finished or the deadline has passed.
+     *
+     * @param thread The thread to wait for.
+     * @return {@code true} if the thread finished in time.
+     */
+    boolean join(Thread thread) {
+        try {
+            long remainingNanos = remainingNanos();
+            if (remainingNanos > 0) {
+                thread.join(Duration.ofNanos(remainingNanos));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !thread.isAlive();
+    }
+
+    /**
+     * Waits until every task of the tracker has finished or the deadline has passed.
+     *
+     * @param tracker The tracker of the tasks.
+     * @return {@code true} if all of its tasks finished in time.
+     */
+    boolean await(CompletionTracker tracker) {
+        try {
+            return tracker.await(remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return tracker.pending() == 0;
+        }
+    }
+
+    /**
+     * Waits until the executor has terminated or the deadline has passed.
+     *
+     * @param executor The executor, which must have been shut down.
+     * @return {@code true} if all of its tasks finished in time.
+     */
+    boolean awaitTermination(ExecutorService executor) {
+        try {
+            return executor.awaitTermination(remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return executor.isTerminated();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.doksanbir;
+
+import lombok.CustomLog;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Tracks execution time, memory usage, garbage collection time and thread count of an operation.
+ * A tracker is started before the operation and logs the difference once the operation has finished.
+ *
+ * @param startTime          The starting time of the operation in milliseconds since the Unix epoch.
+ * @param startMemory        The amount of memory in bytes used by the JVM at the start of the operation.
+ * @param startGcDuration    The total duration of garbage collection in milliseconds at the start of the operation.
+ * @param initialThreadCount The number of live threads at the start of the operation.
+ */
+@CustomLog
+record PerformanceTracker(long startTime, long startMemory, long startGcDuration, int initialThreadCount) {
+
+    /**
+     * Captures the starting values of the metrics.
+     *
+     * @return A tracker holding the initial performance values.
+     */
+    static PerformanceTracker start() {
+        return new PerformanceTracker(
+                System.currentTimeMillis(),
+                getUsedMemory(),
+                getTotalGCDuration(),
+                ManagementFactory.getThreadMXBean().getThreadCount()
+        );
+    }
+
+    /**
+     * Logs the performance metrics of the operation that has just finished.
+     */
+    void logPerformanceMetrics() {
+        long endTime = System.currentTimeMillis();
+        long endMemory = getUsedMemory();
+        long endGcDuration = getTotalGCDuration();
+        int finalThreadCount = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        log.info("Execution time: {} ms", (endTime - startTime));
+        log.info("Used memory before: {} bytes", startMemory);
+        log.info("Used memory after: {} bytes", endMemory);
+        log.info("Memory used by operation: {} bytes", (endMemory - startMemory));
+        log.info("Total garbage collection time: {} ms", (endGcDuration - startGcDuration));
+        log.info("Initial thread count: {}", initialThreadCount);
+        log.info("Final thread count: {}", finalThreadCount);
+    }
+
+    /**
+     * Calculates the amount of memory currently being used by the JVM.
+     *
+     * @return The amount of used memory in bytes.
+     */
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Calculates the total time spent by the garbage collector since the JVM started.
+     *
+     * @return The total duration of garbage collection in milliseconds.
+     */
+    private static long getTotalGCDuration() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
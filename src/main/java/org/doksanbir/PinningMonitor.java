@@ -0,0 +1,173 @@
+package org.doksanbir;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.CustomLog;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports where virtual threads get pinned to their carrier thread.
+ * A virtual thread that blocks while it holds a monitor, for example in {@code Thread.sleep} inside a
+ * {@code synchronized} block, cannot unmount and keeps its carrier busy, which silently caps the number of virtual
+ * threads that make progress at the number of carriers. The monitor streams the JFR {@code jdk.VirtualThreadPinned}
+ * events of the running JVM and adds up the pinned time per call site, the innermost frame of this project in the
+ * stack trace of the event, and logs the sites when it is closed.
+ * <p>
+ * The monitor is enabled with the {@code travel.diagnostics.pinning} system property. Running with
+ * {@code -Djdk.tracePinnedThreads=full} in addition prints the full stack of every pinning as it happens.
+ */
+@CustomLog
+public class PinningMonitor implements AutoCloseable {
+
+    /**
+     * The system property enabling the monitor in the {@code main} methods of the virtual-thread workloads.
+     */
+    static final String PINNING_PROPERTY = "travel.diagnostics.pinning";
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /**
+     * The package whose frames identify the call site of a pinning.
+     */
+    private static final String PROJECT_PACKAGE = PinningMonitor.class.getPackageName() + ".";
+
+    /**
+     * The number of call sites logged by {@link #close()}.
+     */
+    private static final int REPORTED_SITES = 10;
+
+    private final RecordingStream stream;
+    private final Map<String, CallSite> sites = new ConcurrentHashMap<>();
+
+    /**
+     * Starts recording every pinning that lasts at least the given threshold.
+     *
+     * @param threshold The shortest pinning recorded; JFR uses 20 ms by default.
+     */
+    public PinningMonitor(Duration threshold) {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+    }
+
+    /**
+     * Starts a monitor recording every pinning if the {@code travel.diagnostics.pinning} system property is set.
+     *
+     * @return The monitor, or {@code null} if pinning diagnostics are disabled.
+     */
+    public static PinningMonitor startIfEnabled() {
+        return Boolean.getBoolean(PINNING_PROPERTY) ? new PinningMonitor(Duration.ZERO) : null;
+    }
+
+    private void record(RecordedEvent event) {
+        sites.computeIfAbsent(callSite(event.getStackTrace()), CallSite::new).add(event.getDuration().toNanos());
+    }
+
+    /**
+     * Names the innermost frame of this project in the stack trace, or the innermost Java frame if there is none.
+     *
+     * @param stackTrace The stack trace of the pinned virtual thread.
+     * @return The call site, as {@code class.method:line}.
+     */
+    static String callSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        RecordedFrame site = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            if (site == null) {
+                site = frame;
+            }
+            if (frame.getMethod().getType().getName().startsWith(PROJECT_PACKAGE)) {
+                site = frame;
+                break;
+            }
+        }
+        if (site == null) {
+            return "unknown";
+        }
+        return site.getMethod().getType().getName() + "." + site.getMethod().getName() + ":" + site.getLineNumber();
+    }
+
+    /**
+     * Returns the call sites recorded so far, the longest total pinned time first.
+     *
+     * @return The pinned call sites.
+     */
+    public List<CallSite> callSites() {
+        return sites.values().stream()
+                .sorted(Comparator.comparingLong(CallSite::totalNanos).reversed())
+                .toList();
+    }
+
+    /**
+     * Stops recording, waits until every recorded event has been processed and logs the pinned time per call site.
+     */
+    @Override
+    public void close() {
+        stream.stop();
+        stream.close();
+        List<CallSite> callSites = callSites();
+        long pinnings = callSites.stream().mapToLong(CallSite::count).sum();
+        long pinnedNanos = callSites.stream().mapToLong(CallSite::totalNanos).sum();
+        log.info("Virtual thread pinnings: {} in {} call sites, {} ms pinned in total",
+                pinnings, callSites.size(), pinnedNanos / 1_000_000);
+        callSites.stream().limit(REPORTED_SITES).forEach(site -> log.info("Pinned at {}", site));
+    }
+
+    /**
+     * The pinnings recorded at one call site.
+     */
+    public static final class CallSite {
+
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        CallSite(String name) {
+            this.name = name;
+        }
+
+        void add(long pinnedNanos) {
+            count.increment();
+            totalNanos.add(pinnedNanos);
+            maxNanos.accumulate(pinnedNanos);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        @Override
+        public String toString() {
+            return name + " [count=" + count() + ", totalMs=" + String.format("%.1f", totalNanos() / 1e6)
+                    + ", maxMs=" + String.format("%.1f", maxNanos() / 1e6) + "]";
+        }
+    }
+}
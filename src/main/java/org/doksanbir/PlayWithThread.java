@@ -9,12 +9,15 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @Slf4j
 public class PlayWithThread {
 
+    /**
+     * The maximum number of contract operations running at once in the million-operation run.
+     */
+    private static final int MAX_IN_FLIGHT = 10_000;
+
     public static void main(String[] args) throws ExecutionException, InterruptedException {
 
         Set<Contract> contracts = ConcurrentHashMap.newKeySet();
@@ -78,22 +81,20 @@ public class PlayWithThread {
 
         AtomicInteger count = new AtomicInteger();
 
-        // Contract operations 1,000,000 times
-        var contractThreads = IntStream.range(0, 1_000_000)
-                .mapToObj(i -> Thread.startVirtualThread(() -> {
+        Instant begin = Instant.now();
+
+        // Contract operations 1,000,000 times, at most MAX_IN_FLIGHT at once; closing the executor waits for all of them
+        try (var executor = new BoundedVirtualThreadExecutor("contract", MAX_IN_FLIGHT,
+                BoundedVirtualThreadExecutor.SubmissionPolicy.BLOCK)) {
+            for (int i = 0; i < 1_000_000; i++) {
+                executor.execute(() -> {
                     Json request4 = ContractService.buildContractRequest(id);
                     String contractJson4 = ContractService.fetchContract(request4);
                     Contract contract4 = Json.unmarshal(contractJson4);
                     contracts.add(contract4);
                     count.incrementAndGet();
-                }))
-                .collect(Collectors.toList());
-
-        Instant begin = Instant.now();
-
-        // Join all contract threads
-        for (var thread : contractThreads) {
-            thread.join();
+                });
+            }
         }
 
         Instant end = Instant.now();
@@ -9,8 +9,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
 record User(UUID id, String name, String email) {
@@ -71,6 +69,11 @@ class UserService {
 @Slf4j
 public class PlayWithUser {
 
+    /**
+     * The maximum number of user operations running at once in the million-operation run.
+     */
+    private static final int MAX_IN_FLIGHT = 10_000;
+
     /*
      * CompletableFuture and Virtual Thread Explanation:
      *
@@ -194,9 +197,13 @@ public class PlayWithUser {
         Set<User> users = ConcurrentHashMap.newKeySet();
         AtomicInteger count = new AtomicInteger();
 
-        // User operations 1,000,000 times
-        var userThreads = IntStream.range(0, 1_000_000)
-                .mapToObj(i -> Thread.startVirtualThread(() -> {
+        Instant begin = Instant.now();
+
+        // User operations 1,000,000 times, at most MAX_IN_FLIGHT at once; closing the executor waits for all of them
+        try (var executor = new BoundedVirtualThreadExecutor("user", MAX_IN_FLIGHT,
+                BoundedVirtualThreadExecutor.SubmissionPolicy.BLOCK)) {
+            for (int i = 0; i < 1_000_000; i++) {
+                executor.execute(() -> {
                     UUID userId5 = UserService.generateUserId();
                     UserRequest creationRequest5 = UserService.buildUserCreationRequest(userId5, "John Doe", "john.doe@example.com");
                     UserService.createUser(creationRequest5);
@@ -204,14 +211,8 @@ public class PlayWithUser {
                     User user5 = UserService.fetchUser(fetchRequest5);
                     users.add(user5);
                     count.incrementAndGet();
-                }))
-                .collect(Collectors.toList());
-
-        Instant begin = Instant.now();
-
-        // Join all user threads
-        for (var thread : userThreads) {
-            thread.join();
+                });
+            }
         }
 
         Instant end = Instant.now();
@@ -0,0 +1,98 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The quotation of every (destination, days, people) tuple a travel page can ask for, computed once.
+ * <p>
+ * The agencies price trips of 1 to {@link #MAX_DAYS} days for 1 to {@link #MAX_PEOPLE} people over a fixed set of
+ * destinations, so the whole price list is a few thousand doubles. They are stored in a single dense array indexed by
+ * destination id, days and people, which makes a quotation an array access with no hashing, boxing or pricing work.
+ * The table is filled when it is created and never changes, so it can be read by any number of threads.
+ */
+public final class QuotationTable {
+
+    /**
+     * The longest trip priced by the agencies, in days.
+     */
+    static final int MAX_DAYS = 10;
+
+    /**
+     * The largest group priced by the agencies.
+     */
+    static final int MAX_PEOPLE = 5;
+
+    /**
+     * The quotations, indexed by {@code (destinationId * maxDays + days - 1) * maxPeople + people - 1}.
+     */
+    private final double[] quotations;
+    private final int destinationCount;
+    private final int maxDays;
+    private final int maxPeople;
+
+    /**
+     * Creates the table for trips of up to {@link #MAX_DAYS} days and {@link #MAX_PEOPLE} people.
+     *
+     * @param destinations The destinations, whose indexes are the destination ids of the table.
+     * @param dailyRate    The daily rate of a destination for a single person.
+     */
+    public QuotationTable(List<String> destinations, ToDoubleFunction<String> dailyRate) {
+        this(destinations, dailyRate, MAX_DAYS, MAX_PEOPLE);
+    }
+
+    /**
+     * Creates the table for the given ranges of days and people.
+     *
+     * @param destinations The destinations, whose indexes are the destination ids of the table.
+     * @param dailyRate    The daily rate of a destination for a single person.
+     * @param maxDays      The longest trip in the table, in days.
+     * @param maxPeople    The largest group in the table.
+     */
+    public QuotationTable(List<String> destinations, ToDoubleFunction<String> dailyRate, int maxDays, int maxPeople) {
+        if (maxDays < 1 || maxPeople < 1) {
+            throw new IllegalArgumentException("maxDays and maxPeople must be positive: " + maxDays + ", " + maxPeople);
+        }
+        this.destinationCount = destinations.size();
+        this.maxDays = maxDays;
+        this.maxPeople = maxPeople;
+        this.quotations = new double[Math.multiplyExact(Math.multiplyExact(destinationCount, maxDays), maxPeople)];
+        int index = 0;
+        for (String destination : destinations) {
+            double rate = dailyRate.applyAsDouble(destination);
+            for (int days = 1; days <= maxDays; days++) {
+                for (int people = 1; people <= maxPeople; people++) {
+                    // Same order of operations as the agencies' getQuotation, so the prices are identical
+                    quotations[index++] = rate * days * people;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the quotation of a trip.
+     *
+     * @param destinationId The destination id.
+     * @param days          The number of days, between 1 and the maximum of the table.
+     * @param people        The number of people, between 1 and the maximum of the table.
+     * @return The quotation.
+     * @throws IndexOutOfBoundsException if the trip is outside the table.
+     */
+    public double quotation(int destinationId, int days, int people) {
+        if (destinationId < 0 || destinationId >= destinationCount || days < 1 || days > maxDays
+                || people < 1 || people > maxPeople) {
+            throw new IndexOutOfBoundsException("No quotation for destination " + destinationId + ", " + days
+                    + " days, " + people + " people");
+        }
+        return quotations[(destinationId * maxDays + days - 1) * maxPeople + people - 1];
+    }
+
+    /**
+     * Returns the number of quotations in the table.
+     *
+     * @return The number of precomputed quotations.
+     */
+    public int size() {
+        return quotations.length;
+    }
+}
@@ -0,0 +1,61 @@
+package org.doksanbir;
+
+/**
+ * Precomputed destination rate multipliers shared by all travel agencies.
+ * The multiplier of a destination is the Fibonacci number at index {@code |hashCode| mod 30}. Only thirty distinct
+ * values exist, so they are computed once when the class is loaded and every lookup is an allocation-free array
+ * access. The destination hash itself is cached by {@link String}, which makes the per-destination lookup O(1).
+ */
+final class RateMultipliers {
+
+    /**
+     * The number of distinct multipliers, i.e. the modulus applied to the destination hash.
+     */
+    static final int SIZE = 30;
+
+    /**
+     * The first {@link #SIZE} Fibonacci numbers.
+     */
+    private static final double[] FIBONACCI = new double[SIZE];
+
+    static {
+        FIBONACCI[1] = 1;
+        for (int i = 2; i < SIZE; i++) {
+            FIBONACCI[i] = FIBONACCI[i - 1] + FIBONACCI[i - 2];
+        }
+    }
+
+    private RateMultipliers() {
+    }
+
+    /**
+     * Returns the nth Fibonacci number from the precomputed table.
+     *
+     * @param n The index of the Fibonacci number, between 0 and {@link #SIZE} - 1.
+     * @return The nth Fibonacci number.
+     */
+    static double fibonacci(int n) {
+        return FIBONACCI[n];
+    }
+
+    /**
+     * Returns the index in the multiplier table used for the destination.
+     * The remainder is taken before the absolute value so that a hash of {@link Integer#MIN_VALUE} stays in range.
+     *
+     * @param destination The name of the travel destination.
+     * @return The table index of the destination.
+     */
+    static int indexOf(String destination) {
+        return Math.abs(destination.hashCode() % SIZE);
+    }
+
+    /**
+     * Returns the rate multiplier of the destination.
+     *
+     * @param destination The name of the travel destination.
+     * @return The Fibonacci number at the table index of the destination.
+     */
+    static double forDestination(String destination) {
+        return FIBONACCI[indexOf(destination)];
+    }
+}
@@ -0,0 +1,83 @@
+package org.doksanbir;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples the number of days and people of the sample quotations on the travel page.
+ * A single {@link java.util.Random} shared by every worker thread serializes them on the compare-and-set of its
+ * atomic seed, and a new {@code Random} per task allocates a generator to draw two numbers. The sampler instead gives
+ * every thread its own {@link SplittableRandom}, split from a root generator the first time the thread samples, so
+ * sampling touches no shared state. The generators of a sampler created with a seed are reproducible per thread.
+ */
+public final class RequestSampler {
+
+    private final SplittableRandom root;
+    private final ThreadLocal<SplittableRandom> generators = ThreadLocal.withInitial(this::split);
+
+    /**
+     * Creates a sampler with an unpredictable seed.
+     */
+    public RequestSampler() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a sampler whose per-thread generators are split from a generator with the given seed.
+     *
+     * @param seed The seed of the root generator.
+     */
+    public RequestSampler(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private RequestSampler(SplittableRandom root) {
+        this.root = root;
+    }
+
+    /**
+     * Splits a new generator off the root. The root is not thread-safe, and this only happens once per thread.
+     */
+    private synchronized SplittableRandom split() {
+        return root.split();
+    }
+
+    /**
+     * Returns the generator of the calling thread.
+     *
+     * @return A generator that must only be used by the calling thread.
+     */
+    public RandomGenerator generator() {
+        return generators.get();
+    }
+
+    /**
+     * Samples the length of a trip.
+     *
+     * @return A number of days between 1 and {@link QuotationTable#MAX_DAYS}.
+     */
+    public int sampleDays() {
+        return generators.get().nextInt(1, QuotationTable.MAX_DAYS + 1);
+    }
+
+    /**
+     * Samples the size of a group.
+     *
+     * @return A number of people between 1 and {@link QuotationTable#MAX_PEOPLE}.
+     */
+    public int samplePeople() {
+        return generators.get().nextInt(1, QuotationTable.MAX_PEOPLE + 1);
+    }
+
+    /**
+     * Samples a trip to the destination.
+     *
+     * @param destination The name of the travel destination.
+     * @return The request for a sample quotation.
+     */
+    public TravelRequest sample(String destination) {
+        SplittableRandom random = generators.get();
+        return new TravelRequest(destination, random.nextInt(1, QuotationTable.MAX_DAYS + 1),
+                random.nextInt(1, QuotationTable.MAX_PEOPLE + 1));
+    }
+}
@@ -0,0 +1,28 @@
+package org.doksanbir;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs every task one after the other on the calling thread.
+ * This is the baseline the concurrent strategies are compared against.
+ */
+public class SequentialExecutionStrategy implements ExecutionStrategy {
+
+    static final String NAME = "sequential";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public <T, R> List<R> executeAll(List<T> tasks, Function<? super T, ? extends R> action) {
+        List<R> results = new ArrayList<>(tasks.size());
+        for (T task : tasks) {
+            results.add(action.apply(task));
+        }
+        return results;
+    }
+}
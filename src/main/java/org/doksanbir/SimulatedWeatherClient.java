@@ -0,0 +1,80 @@
+package org.doksanbir;
+
+import lombok.CustomLog;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Simulates the weather backend: every call sleeps for the configured network delay and then returns a weather
+ * condition derived from the destination's hash code, so a destination always gets the same forecast.
+ * A bulk request costs a single simulated network call regardless of the number of destinations.
+ */
+@CustomLog
+public class SimulatedWeatherClient implements WeatherClient {
+
+    /**
+     * An array containing names of all weather conditions.
+     */
+    static final String[] WEATHER_CONDITIONS = {
+            "Sunny", "Cloudy", "Rainy", "Stormy", "Snowy", "Windy", "Foggy", "Icy"
+    };
+
+    private final Duration networkCallDelay;
+
+    /**
+     * Creates a client simulating the given network delay.
+     *
+     * @param networkCallDelay The delay of every simulated backend call.
+     */
+    public SimulatedWeatherClient(Duration networkCallDelay) {
+        this.networkCallDelay = networkCallDelay;
+    }
+
+    @Override
+    public String fetchForecast(String destination) {
+        simulateNetworkCall();
+        return selectForecast(destination);
+    }
+
+    /**
+     * Simulates the bulk endpoint of the weather backend: a single network call returns the forecasts of all
+     * requested destinations.
+     */
+    @Override
+    public Map<String, String> fetchForecasts(Collection<String> destinations) {
+        simulateNetworkCall();
+        Map<String, String> forecasts = new LinkedHashMap<>();
+        for (String destination : destinations) {
+            forecasts.put(destination, selectForecast(destination));
+        }
+        return forecasts;
+    }
+
+    /**
+     * Returns the forecast of the destination, which only depends on its name.
+     *
+     * @param destination The name of the travel destination.
+     * @return The weather condition forecast for the destination.
+     */
+    static String selectForecast(String destination) {
+        return ForecastSelector.select(destination, WEATHER_CONDITIONS);
+    }
+
+    /**
+     * Simulates a network call by sleeping for the configured delay.
+     */
+    private void simulateNetworkCall() {
+        if (networkCallDelay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(networkCallDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Simulated network call cancelled", e);
+        }
+    }
+}
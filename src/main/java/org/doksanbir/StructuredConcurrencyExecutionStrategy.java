@@ -0,0 +1,36 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+import java.util.function.Function;
+
+/**
+ * Forks every task as a subtask of a {@link StructuredTaskScope.ShutdownOnFailure} scope.
+ * The first failing task shuts the scope down, which cancels all of its siblings, and the scope
+ * never returns while any of its threads is still running.
+ * <p>
+ * StructuredTaskScope is a preview API in JDK 21, so this strategy requires {@code --enable-preview}.
+ */
+public class StructuredConcurrencyExecutionStrategy implements ExecutionStrategy {
+
+    static final String NAME = "structured";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public <T, R> List<R> executeAll(List<T> tasks, Function<? super T, ? extends R> action) {
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            List<Subtask<R>> subtasks = tasks.stream()
+                    .map(task -> scope.<R>fork(() -> action.apply(task)))
+                    .toList();
+            scope.join().throwIfFailed(ExecutionStrategies::propagate);
+            return subtasks.stream().map(Subtask::get).toList();
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
+        }
+    }
+}
@@ -1,37 +1,68 @@
 package org.doksanbir;
 
-import lombok.extern.slf4j.Slf4j;
+import lombok.CustomLog;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
-import java.util.Random;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.*;
-import java.util.stream.IntStream;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class simulates a multi-threaded travel agency that retrieves weather forecasts
  * and calculates travel quotes for various destinations concurrently.
  * It displays a travel page with destinations, weather forecasts, and sample quotations
  * for a random number of days and people.
+ * <p>
+ * Besides the thread pool based page, {@link #displayTravelPageStructured()} renders the page with structured
+ * concurrency, which is a preview API in JDK 21 and requires {@code --enable-preview}.
  */
-@Slf4j
-public class ThreadedTravelAgency {
+@CustomLog
+public class ThreadedTravelAgency implements TravelAgency {
 
-    private static final int DESTINATION_COUNT = 50;
-    private static final double BASE_RATE = 100.0;
-    private static final String[] DESTINATIONS = IntStream.range(0, DESTINATION_COUNT)
-            .mapToObj(i -> "Destination_" + (i + 1))
-            .toArray(String[]::new);
-    private static final String[] WEATHER_CONDITIONS = {
-            "Sunny", "Cloudy", "Rainy", "Stormy", "Snowy", "Windy", "Foggy", "Icy"
-    };
+    /**
+     * The default latency budget of the travel page. Destinations that are not ready by then are shown with fallback
+     * values.
+     */
+    private static final Duration PAGE_BUDGET = PageDeadline.DEFAULT_PAGE_BUDGET;
 
-    private final ExecutorService executorService;
-    private final Random random;
+    /**
+     * Quotations run on a CPU pool and forecasts on an I/O executor, configured with the
+     * {@code travel.threaded.cpu.threads} and {@code travel.threaded.io} system properties.
+     */
+    private final ExecutorTopology executors;
+
+    /**
+     * Plans and prices the trips and fetches the forecasts from the simulated weather service.
+     */
+    private final TravelAgencyEngine engine;
+    private final Duration pageBudget;
+    private final AtomicInteger degradedCount = new AtomicInteger();
 
     public ThreadedTravelAgency() {
-        this.executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        this.random = new Random();
+        this(ExecutorTopology.forAgency("threaded"));
+    }
+
+    private ThreadedTravelAgency(ExecutorTopology executors) {
+        this(executors, new TravelAgencyEngine(new CompletableFutureExecutionStrategy(executors.cpu())), PAGE_BUDGET);
+    }
+
+    /**
+     * Creates an agency planning, pricing and forecasting with the given engine.
+     *
+     * @param engine     The engine providing the quotations, forecasts and trips.
+     * @param pageBudget The latency budget of the travel page.
+     */
+    ThreadedTravelAgency(TravelAgencyEngine engine, Duration pageBudget) {
+        this(ExecutorTopology.forAgency("threaded"), engine, pageBudget);
+    }
+
+    private ThreadedTravelAgency(ExecutorTopology executors, TravelAgencyEngine engine, Duration pageBudget) {
+        this.executors = executors;
+        this.engine = engine;
+        this.pageBudget = pageBudget;
     }
 
     /**
@@ -43,7 +74,7 @@ public class ThreadedTravelAgency {
      * @return A CompletableFuture object containing the calculated quote upon completion.
      */
     public CompletableFuture<Double> getQuotationAsync(String destination, int days, int people) {
-        return CompletableFuture.supplyAsync(() -> getQuotation(destination, days, people), executorService);
+        return CompletableFuture.supplyAsync(() -> getQuotation(destination, days, people), executors.cpu());
     }
 
     /**
@@ -53,7 +84,7 @@ public class ThreadedTravelAgency {
      * @return A CompletableFuture object containing the retrieved weather forecast upon completion.
      */
     public CompletableFuture<String> getWeatherForecastAsync(String destination) {
-        return CompletableFuture.supplyAsync(() -> getWeatherForecast(destination), executorService);
+        return CompletableFuture.supplyAsync(() -> getWeatherForecast(destination), executors.io());
     }
 
     /**
@@ -64,81 +95,108 @@ public class ThreadedTravelAgency {
      * @param people      The number of people traveling.
      * @return The calculated travel quote as a double.
      */
-    private double getQuotation(String destination, int days, int people) {
-        double rate = BASE_RATE * (1 + getDestinationRateMultiplier(destination));
-        return rate * days * people;
+    @Override
+    public double getQuotation(String destination, int days, int people) {
+        return engine.getQuotation(destination, days, people);
     }
 
     /**
-     * Simulates a network call to fetch the weather forecast for the specified destination.
-     * This method introduces a delay of 200 milliseconds for demonstration purposes.
+     * Fetches the weather forecast for the specified destination from the simulated weather service, which answers
+     * after 200 milliseconds.
      *
      * @param destination The name of the travel destination.
-     * @return A randomly chosen weather condition from the available options.
+     * @return The weather condition forecast for the destination.
      */
+    @Override
     public String getWeatherForecast(String destination) {
-        simulateNetworkCall();
-        return WEATHER_CONDITIONS[new Random(destination.hashCode()).nextInt(WEATHER_CONDITIONS.length)];
+        return engine.getWeatherForecast(destination);
     }
 
     /**
-     * Simulates a network delay of 200 milliseconds.
+     * Displays the Travel Agency page by fetching and displaying information for each destination concurrently.
+     * The page is displayed within the page budget: destinations whose weather or quotation is not ready by then
+     * are shown with a fallback value, and the tasks still queued or running are cancelled.
+     * This method tracks performance metrics like execution time, memory usage, and garbage collection.
      */
-    private void simulateNetworkCall() {
+    public void displayTravelPage() {
+        PerformanceMetrics metrics = startPerformanceTracking();
+        PageDeadline deadline = PageDeadline.after(pageBudget);
+        List<TravelRequest> trips = engine.planTrips();
+
         try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Thread was interrupted during simulateNetworkCall", e);
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[trips.size()];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = processDestination(trips.get(i), deadline);
+            }
+            CompletableFuture.allOf(futures).join();
+        } finally {
+            executors.shutdownNow();
         }
+
+        logPerformanceMetrics(metrics);
     }
 
     /**
-     * Calculates a rate multiplier for the specified destination based on a pseudo-random process using the Fibonacci sequence.
-     *
-     * @param destination The name of the travel destination.
-     * @return A double representing the rate multiplier for the destination.
-     *
-     * Note: This method uses a combination of `hashCode` and the Fibonacci sequence to generate a seemingly random multiplier.
-     * This is not a secure or robust method for generating random numbers and should be replaced with a proper cryptographic
-     * random number generator for production use.
+     * Displays the Travel Agency page using structured concurrency.
+     * The page is a parent scope with one subtask per destination, and every destination is a child scope forking its
+     * weather forecast and its quotation. A failing forecast or quotation shuts its destination scope down, which
+     * cancels the sibling, and the destination is shown with fallback values; the other destinations are not affected.
+     * When the page budget runs out the page scope is shut down, which cancels the destinations that are not done and
+     * shows them with fallback values too, so no thread outlives the page.
      */
-    private double getDestinationRateMultiplier(String destination) {
-        return fib(Math.abs(destination.hashCode()) % 30) / 100.0;
-    }
+    public void displayTravelPageStructured() {
+        PerformanceMetrics metrics = startPerformanceTracking();
+        PageDeadline deadline = PageDeadline.after(pageBudget);
+        List<TravelRequest> trips = engine.planTrips();
 
-    /**
-     * Calculates the nth Fibonacci number using an iterative approach.
-     *
-     * @param n The index of the Fibonacci number to calculate.
-     * @return The nth Fibonacci number.
-     */
-    private int fib(int n) {
-        if (n <= 1) return n;
-        int a = 0, b = 1;
-        for (int i = 2; i <= n; i++) {
-            int temp = a + b;
-            a = b;
-            b = temp;
+        try (var page = new StructuredTaskScope<DestinationResult>()) {
+            List<Subtask<DestinationResult>> destinations = trips.stream()
+                    .map(trip -> page.fork(() -> processDestinationStructured(trip)))
+                    .toList();
+            try {
+                page.joinUntil(deadline.instant());
+            } catch (TimeoutException e) {
+                page.shutdown();
+                page.join();
+            }
+            for (int i = 0; i < destinations.size(); i++) {
+                Subtask<DestinationResult> destination = destinations.get(i);
+                TravelRequest trip = trips.get(i);
+                if (destination.state() == Subtask.State.SUCCESS) {
+                    DestinationResult result = destination.get();
+                    logDestinationDetails(result.destination(), result.weather(), result.quotation(), result.days(), result.people());
+                    continue;
+                }
+                if (destination.state() == Subtask.State.FAILED) {
+                    log.warn("Destination {} failed: {}", trip.destination(), destination.exception().toString());
+                }
+                degradedCount.incrementAndGet();
+                logDestinationDetails(trip.destination(), DestinationResult.FALLBACK_WEATHER,
+                        DestinationResult.FALLBACK_QUOTATION, trip.days(), trip.people());
+            }
+        } catch (InterruptedException e) {
+            throw ExecutionStrategies.interrupted(e);
         }
-        return b;
+
+        logPerformanceMetrics(metrics);
     }
 
     /**
-     * Displays the Travel Agency page by fetching and displaying information for each destination concurrently.
-     * This method tracks performance metrics like execution time, memory usage, and garbage collection.
+     * Processes a single destination in its own child scope, fetching the weather forecast and calculating the quotation
+     * as sibling subtasks. If either fails, the other is cancelled and the failure is rethrown to the page scope, which
+     * degrades the destination.
+     *
+     * @param request The trip to the destination.
+     * @return The details of the destination.
+     * @throws InterruptedException if the destination was cancelled by the page scope.
      */
-    public void displayTravelPage() {
-        PerformanceMetrics metrics = startPerformanceTracking();
-
-        CompletableFuture<?>[] futures = new CompletableFuture<?>[DESTINATIONS.length];
-        for (int i = 0; i < DESTINATIONS.length; i++) {
-            futures[i] = processDestination(DESTINATIONS[i]);
+    private DestinationResult processDestinationStructured(TravelRequest request) throws InterruptedException {
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            Subtask<String> weather = scope.fork(() -> getWeatherForecast(request.destination()));
+            Subtask<Double> quotation = scope.fork(() -> getQuotation(request.destination(), request.days(), request.people()));
+            scope.join().throwIfFailed(ExecutionStrategies::propagate);
+            return new DestinationResult(request.destination(), weather.get(), request.days(), request.people(), quotation.get());
         }
-        CompletableFuture.allOf(futures).join();
-
-        logPerformanceMetrics(metrics);
-        executorService.shutdown();
     }
 
     /**
@@ -146,17 +204,24 @@ public class ThreadedTravelAgency {
      * This method fetches the weather forecast and calculates a travel quote concurrently using separate tasks.
      * It then logs the retrieved information along with the chosen number of days and people for the trip.
      *
-     * @param destination The name of the travel destination.
-     * @return A CompletableFuture that completes when all processing for the destination is finished.
+     * Both are bounded by the page deadline and replaced by their fallback value if they are late or fail.
+     *
+     * @param trip     The trip to the destination.
+     * @param deadline The deadline of the travel page.
+     * @return A CompletableFuture that completes when all processing for the destination is finished, by the deadline.
      */
-    private CompletableFuture<Void> processDestination(String destination) {
-        int days = random.nextInt(10) + 1;
-        int people = random.nextInt(5) + 1;
+    private CompletableFuture<Void> processDestination(TravelRequest trip, PageDeadline deadline) {
+        String destination = trip.destination();
+        int days = trip.days();
+        int people = trip.people();
 
         return CompletableFuture.allOf(
-                getWeatherForecastAsync(destination)
-                        .thenCombine(getQuotationAsync(destination, days, people),
+                deadline.bound(getWeatherForecastAsync(destination), DestinationResult.FALLBACK_WEATHER)
+                        .thenCombine(deadline.bound(getQuotationAsync(destination, days, people), DestinationResult.FALLBACK_QUOTATION),
                                 (weather, quotation) -> {
+                                    if (DestinationResult.FALLBACK_WEATHER.equals(weather) || Double.isNaN(quotation)) {
+                                        degradedCount.incrementAndGet();
+                                    }
                                     logDestinationDetails(destination, weather, quotation, days, people);
                                     return null;
                                 })
@@ -179,6 +244,15 @@ public class ThreadedTravelAgency {
                 destination, weather, days, people, String.format("%.2f", quotation));
     }
 
+    /**
+     * Returns the number of destinations shown with fallback values because they failed or missed the page deadline.
+     *
+     * @return The number of degraded destinations.
+     */
+    int degradedCount() {
+        return degradedCount.get();
+    }
+
     /**
      * Starts tracking performance metrics for the `displayTravelPage` method.
      * This method captures the starting time, memory usage, and total garbage collection duration before processing any destinations.
@@ -211,6 +285,8 @@ public class ThreadedTravelAgency {
         log.info("Memory used by operation: {} bytes", (endMemory - metrics.startMemory));
         log.info("Total garbage collection time: {} ms", (endGcDuration - metrics.startGcDuration));
         log.info("Final thread count: {}", finalThreadCount);
+        log.info("Destinations degraded by the {} ms page deadline: {}", pageBudget.toMillis(), degradedCount.get());
+        log.info("Executors: {}", executors);
     }
 
     /**
@@ -245,10 +321,17 @@ public class ThreadedTravelAgency {
     /**
      * This is the entry point for the application.
      * It creates an instance of the `ThreadedTravelAgency` class and calls its `displayTravelPage` method to generate and display the travel page.
+     * Passing {@code structured} as the first argument renders the page with {@link #displayTravelPageStructured()} instead.
      *
-     * @param args Command-line arguments (not used in this application).
+     * @param args Optional {@code structured} to use structured concurrency.
      */
     public static void main(String[] args) {
-        new ThreadedTravelAgency().displayTravelPage();
+        ThreadedTravelAgency agency = new ThreadedTravelAgency();
+        if (args.length > 0 && StructuredConcurrencyExecutionStrategy.NAME.equals(args[0])) {
+            agency.displayTravelPageStructured();
+            agency.executors.close();
+        } else {
+            agency.displayTravelPage();
+        }
     }
 }
\ No newline at end of file
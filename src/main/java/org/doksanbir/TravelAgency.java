@@ -0,0 +1,52 @@
+package org.doksanbir;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Common API of the travel agency implementations.
+ * Every agency can price a trip, fetch the weather forecast for a destination and render the travel page
+ * for all of its destinations. How the work behind the travel page is scheduled is up to the implementation.
+ */
+public interface TravelAgency {
+
+    /**
+     * Calculates a quotation for a trip to the specified destination for the given number of days and people.
+     *
+     * @param destination The name of the travel destination.
+     * @param days        The number of days for the trip.
+     * @param people      The number of people traveling.
+     * @return The calculated quotation for the trip.
+     */
+    double getQuotation(String destination, int days, int people);
+
+    /**
+     * Retrieves the weather forecast for the specified destination.
+     *
+     * @param destination The name of the travel destination.
+     * @return The weather condition forecast for the destination.
+     */
+    String getWeatherForecast(String destination);
+
+    /**
+     * Retrieves the weather forecasts of several destinations.
+     * The default implementation looks them up one at a time; agencies with a batching weather client override it
+     * to fetch them in as few backend calls as possible.
+     *
+     * @param destinations The names of the travel destinations.
+     * @return The forecast of every destination, in the iteration order of the collection.
+     */
+    default Map<String, String> getWeatherForecasts(Collection<String> destinations) {
+        Map<String, String> forecasts = new LinkedHashMap<>();
+        for (String destination : destinations) {
+            forecasts.computeIfAbsent(destination, this::getWeatherForecast);
+        }
+        return forecasts;
+    }
+
+    /**
+     * Generates and displays the travel page with weather forecasts and sample quotations for all destinations.
+     */
+    void displayTravelPage();
+}
@@ -0,0 +1,488 @@
+package org.doksanbir;
+
+import lombok.CustomLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * A single travel agency implementation whose concurrency is provided by a pluggable {@link ExecutionStrategy}.
+ * The pricing and weather logic is defined once here; only the way destinations are scheduled differs between
+ * strategies. The engine is selected at startup with the {@code travel.strategy} system property (or the first
+ * command-line argument), so every strategy can be compared on exactly the same workload.
+ * <p>
+ * The sample trips are generated from a fixed seed, which makes the travel page identical for every strategy.
+ */
+@CustomLog
+public class TravelAgencyEngine implements TravelAgency {
+
+    /**
+     * The system property used to select the execution strategy at startup.
+     */
+    static final String STRATEGY_PROPERTY = "travel.strategy";
+
+    /**
+     * The system property holding the base URL of an HTTP weather backend. When it is not set, the backend is
+     * simulated in-process.
+     */
+    static final String WEATHER_URL_PROPERTY = "travel.weather.url";
+
+    /**
+     * The system property holding the latency budget of the travel page in milliseconds. When it is not set, the page
+     * waits for every destination.
+     */
+    static final String PAGE_BUDGET_PROPERTY = "travel.page.budget.ms";
+
+    /**
+     * The system property holding the file the travel page is written to instead of being logged.
+     */
+    static final String PAGE_OUTPUT_PROPERTY = "travel.page.output";
+
+    /**
+     * The system property selecting the {@link TravelPageSink} of the travel page file.
+     */
+    static final String PAGE_FORMAT_PROPERTY = "travel.page.format";
+
+    /**
+     * The system property holding a file with one destination name per line. When it is not set, the engine uses
+     * {@link #DEFAULT_DESTINATION_COUNT} synthetic destinations.
+     */
+    static final String DESTINATIONS_FILE_PROPERTY = "travel.destinations.file";
+
+    /**
+     * The system property streaming the travel page to {@code travel.page.output} through a
+     * {@link DestinationPipeline}, reading the destinations file line by line instead of loading a catalog.
+     */
+    static final String PAGE_STREAMING_PROPERTY = "travel.page.streaming";
+
+    /**
+     * The strategy used when none is configured.
+     */
+    static final String DEFAULT_STRATEGY = VirtualThreadExecutionStrategy.NAME;
+
+    /**
+     * The default number of travel destinations.
+     */
+    static final int DEFAULT_DESTINATION_COUNT = 50;
+
+    /**
+     * The default delay used to simulate the weather service call.
+     */
+    static final Duration DEFAULT_NETWORK_CALL_DELAY = Duration.ofMillis(200);
+
+    /**
+     * The base price per day for travel.
+     */
+    static final double BASE_RATE = 100.0;
+
+    /**
+     * The seed used to generate the sample trips, so every strategy renders the same page.
+     */
+    static final long WORKLOAD_SEED = 42L;
+
+    /**
+     * An array containing names of all weather conditions.
+     */
+    static final String[] WEATHER_CONDITIONS = SimulatedWeatherClient.WEATHER_CONDITIONS;
+
+    private final ExecutionStrategy strategy;
+    private final DestinationCatalog destinations;
+    private final WeatherClient weatherClient;
+
+    /**
+     * The latency budget of the travel page, or {@code null} to wait for every destination.
+     */
+    private final Duration pageBudget;
+
+    private final LongAdder degradedEntries = new LongAdder();
+
+    /**
+     * Creates an engine with the default destinations and network delay.
+     *
+     * @param strategy The strategy scheduling the per-destination work.
+     */
+    public TravelAgencyEngine(ExecutionStrategy strategy) {
+        this(strategy, DEFAULT_DESTINATION_COUNT, DEFAULT_NETWORK_CALL_DELAY);
+    }
+
+    /**
+     * Creates an engine for the given number of destinations.
+     *
+     * @param strategy         The strategy scheduling the per-destination work.
+     * @param destinationCount The number of destinations on the travel page.
+     * @param networkCallDelay The delay used to simulate the weather service call.
+     */
+    public TravelAgencyEngine(ExecutionStrategy strategy, int destinationCount, Duration networkCallDelay) {
+        this(strategy, destinationCount, new SimulatedWeatherClient(networkCallDelay));
+    }
+
+    /**
+     * Creates an engine for the given number of destinations that gets its forecasts from the given client.
+     *
+     * @param strategy         The strategy scheduling the per-destination work.
+     * @param destinationCount The number of destinations on the travel page.
+     * @param weatherClient    The client providing the weather forecasts.
+     */
+    public TravelAgencyEngine(ExecutionStrategy strategy, int destinationCount, WeatherClient weatherClient) {
+        this(strategy, destinationCount, weatherClient, null);
+    }
+
+    /**
+     * Creates an engine whose travel page is rendered within the given latency budget.
+     *
+     * @param strategy         The strategy scheduling the per-destination work when no budget is set.
+     * @param destinationCount The number of destinations on the travel page.
+     * @param weatherClient    The client providing the weather forecasts.
+     * @param pageBudget       The latency budget of the travel page, or {@code null} to wait for every destination.
+     */
+    public TravelAgencyEngine(ExecutionStrategy strategy, int destinationCount, WeatherClient weatherClient,
+                              Duration pageBudget) {
+        this(strategy, DestinationCatalog.synthetic(destinationCount), weatherClient, pageBudget);
+    }
+
+    /**
+     * Creates an engine for the destinations of a catalog, such as a real inventory loaded from a file.
+     *
+     * @param strategy      The strategy scheduling the per-destination work when no budget is set.
+     * @param catalog       The destinations on the travel page; their catalog ids are the ids of the batch calculator.
+     * @param weatherClient The client providing the weather forecasts.
+     * @param pageBudget    The latency budget of the travel page, or {@code null} to wait for every destination.
+     */
+    public TravelAgencyEngine(ExecutionStrategy strategy, DestinationCatalog catalog, WeatherClient weatherClient,
+                              Duration pageBudget) {
+        this.strategy = strategy;
+        this.pageBudget = pageBudget;
+        this.destinations = catalog;
+        this.weatherClient = weatherClient;
+    }
+
+    @Override
+    public double getQuotation(String destination, int days, int people) {
+        return getDailyRate(destination) * days * people;
+    }
+
+    /**
+     * Calculates the price of one day at the destination for a single person.
+     *
+     * @param destination The name of the travel destination.
+     * @return The base rate adjusted by the destination rate multiplier.
+     */
+    double getDailyRate(String destination) {
+        return BASE_RATE * (1 + getDestinationRateMultiplier(destination));
+    }
+
+    /**
+     * Creates a calculator pricing batches of trips to the destinations of this engine.
+     * The destination id of a trip is the index of its destination, so {@code Destination_1} has id 0.
+     *
+     * @return A batch calculator using the same pricing as {@link #getQuotation}.
+     */
+    public BatchQuotationCalculator batchQuotationCalculator() {
+        return new BatchQuotationCalculator(destinations, this::getDailyRate);
+    }
+
+    /**
+     * Calculates a multiplier based on the destination for adjusting the base rate.
+     * This method uses the Fibonacci sequence (mod 30) for demonstration purposes.
+     *
+     * @param destination The name of the travel destination.
+     * @return A multiplier for the base rate based on the destination.
+     */
+    double getDestinationRateMultiplier(String destination) {
+        return RateMultipliers.forDestination(destination);
+    }
+
+    /**
+     * Fetches the weather forecast for the specified destination from the configured weather client.
+     *
+     * @param destination The name of the travel destination.
+     * @return The weather condition forecast for the destination.
+     */
+    @Override
+    public String getWeatherForecast(String destination) {
+        return weatherClient.fetchForecast(destination);
+    }
+
+    /**
+     * Fetches the weather forecasts of the destinations with the bulk lookup of the configured weather client.
+     *
+     * @param destinations The names of the travel destinations.
+     * @return The forecast of every destination, in the iteration order of the collection.
+     */
+    @Override
+    public Map<String, String> getWeatherForecasts(Collection<String> destinations) {
+        return weatherClient.fetchForecasts(destinations);
+    }
+
+    /**
+     * Generates the sample trips shown on the travel page, one per destination.
+     *
+     * @return The travel requests for all destinations.
+     */
+    List<TravelRequest> planTrips() {
+        List<TravelRequest> requests = new ArrayList<>(destinations.size());
+        planTrips(destinations.iterator()).forEachRemaining(requests::add);
+        return requests;
+    }
+
+    /**
+     * Generates the sample trips of a feed of destinations lazily, one per destination as it is read.
+     * The trips are the same as those of {@link #planTrips()} for the same destinations.
+     *
+     * @param destinations The destinations, possibly unbounded.
+     * @return The travel requests, generated on demand.
+     */
+    static Iterator<TravelRequest> planTrips(Iterator<String> destinations) {
+        Random random = new Random(WORKLOAD_SEED);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return destinations.hasNext();
+            }
+
+            @Override
+            public TravelRequest next() {
+                String destination = destinations.next();
+                int days = random.nextInt(10) + 1;
+                int people = random.nextInt(5) + 1;
+                return new TravelRequest(destination, days, people);
+            }
+        };
+    }
+
+    /**
+     * Computes the travel page by processing every destination with the configured strategy.
+     *
+     * @return The details of every destination, in destination order.
+     */
+    public List<DestinationResult> renderTravelPage() {
+        return strategy.executeAll(planTrips(), this::processDestination);
+    }
+
+    /**
+     * Computes the travel page within a latency budget.
+     * The weather forecast and the quotation of every destination are started at once on virtual threads. When the
+     * budget is spent, whatever has not arrived is rendered with its fallback value, the outstanding work is cancelled
+     * by interrupting its threads, and the page is returned without waiting for them to unwind, so a call that ignores
+     * interrupts cannot hold the page past its budget. Because all work has to be abandonable, the page is scheduled on
+     * its own virtual threads rather than with the configured strategy.
+     *
+     * @param budget The time the page may take.
+     * @return The details of every destination, in destination order; entries that missed the deadline are degraded.
+     */
+    public List<DestinationResult> renderTravelPage(Duration budget) {
+        PageDeadline deadline = PageDeadline.after(budget);
+        List<TravelRequest> trips = planTrips();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<String>> forecasts = new ArrayList<>(trips.size());
+            List<Future<Double>> quotations = new ArrayList<>(trips.size());
+            for (TravelRequest trip : trips) {
+                forecasts.add(executor.submit(() -> getWeatherForecast(trip.destination())));
+                quotations.add(executor.submit(() -> getQuotation(trip.destination(), trip.days(), trip.people())));
+            }
+            List<DestinationResult> results = new ArrayList<>(trips.size());
+            for (int i = 0; i < trips.size(); i++) {
+                results.add(DestinationResult.ofPartial(trips.get(i),
+                        deadline.await(forecasts.get(i)), deadline.await(quotations.get(i))));
+            }
+            degradedEntries.add(results.stream().filter(DestinationResult::degraded).count());
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Renders the travel page as a typed object, within the page budget if one is set.
+     *
+     * @return The travel page.
+     */
+    public TravelPage renderPage() {
+        return new TravelPage(pageBudget != null ? renderTravelPage(pageBudget) : renderTravelPage());
+    }
+
+    /**
+     * Returns the number of destinations rendered with a fallback value so far, over all pages.
+     *
+     * @return The number of degraded entries.
+     */
+    public long degradedEntries() {
+        return degradedEntries.sum();
+    }
+
+    /**
+     * Processes a single destination by fetching its weather forecast and calculating its quotation.
+     *
+     * @param request The trip to process.
+     * @return The details of the destination.
+     */
+    DestinationResult processDestination(TravelRequest request) {
+        String weather = getWeatherForecast(request.destination());
+        double quotation = getQuotation(request.destination(), request.days(), request.people());
+        return new DestinationResult(request.destination(), weather, request.days(), request.people(), quotation);
+    }
+
+    @Override
+    public void displayTravelPage() {
+        PerformanceTracker tracker = PerformanceTracker.start();
+
+        TravelPage page = renderPage();
+        page.destinations().forEach(TravelAgencyEngine::logDestinationDetails);
+
+        logPageSummary(page);
+        tracker.logPerformanceMetrics();
+    }
+
+    /**
+     * Renders the travel page and writes it to a file with the given sink instead of logging every destination.
+     *
+     * @param sink The sink serializing the page.
+     * @param path The file to write to.
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    public void writeTravelPage(TravelPageSink sink, Path path) {
+        PerformanceTracker tracker = PerformanceTracker.start();
+
+        TravelPage page = renderPage();
+        try {
+            sink.write(page, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the travel page to " + path, e);
+        }
+
+        log.info("Wrote the travel page to {} as {}", path, sink.name());
+        logPageSummary(page);
+        tracker.logPerformanceMetrics();
+    }
+
+    /**
+     * Streams the travel page of a feed of destinations to a channel, without holding the page in memory.
+     * The destinations flow through a {@link DestinationPipeline} with backpressure and are written in the order
+     * they complete; the page budget does not apply.
+     *
+     * @param destinations The destinations, possibly read lazily from a file.
+     * @param sink         The sink serializing the page.
+     * @param channel      The channel to write to, which is left open.
+     * @return The number of destinations written.
+     * @throws IOException if the channel cannot be written.
+     */
+    public long streamTravelPage(Iterator<String> destinations, TravelPageSink sink, WritableByteChannel channel)
+            throws IOException {
+        try (ExecutorTopology executors = ExecutorTopology.forAgency("engine");
+             TravelPageSink.DestinationWriter writer = sink.open(channel)) {
+            DestinationPipeline pipeline = new DestinationPipeline(this, executors, DestinationPipeline.DEFAULT_MAX_IN_FLIGHT);
+            return pipeline.run(planTrips(destinations), writer);
+        }
+    }
+
+    /**
+     * Streams the travel page of a feed of destinations to a file, replacing its previous contents.
+     *
+     * @param destinations The destinations, possibly read lazily from a file.
+     * @param sink         The sink serializing the page.
+     * @param path         The file to write to.
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    public void streamTravelPage(Iterator<String> destinations, TravelPageSink sink, Path path) {
+        PerformanceTracker tracker = PerformanceTracker.start();
+
+        long written;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            written = streamTravelPage(destinations, sink, channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the travel page to " + path, e);
+        }
+
+        log.info("Streamed {} destinations to {} as {}", written, path, sink.name());
+        tracker.logPerformanceMetrics();
+    }
+
+    private void logPageSummary(TravelPage page) {
+        if (pageBudget != null) {
+            log.info("Rendered {} destinations within a budget of {} ms, {} degraded", page.size(), pageBudget.toMillis(), page.degradedCount());
+        } else {
+            log.info("Rendered {} destinations using the {} strategy", page.size(), strategy.name());
+        }
+    }
+
+    /**
+     * Logs information about a specific travel destination.
+     *
+     * @param result The details of the destination.
+     */
+    private static void logDestinationDetails(DestinationResult result) {
+        log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}",
+                result.destination(), result.weather(), result.days(), result.people(), result.quotation());
+    }
+
+    /**
+     * The entry point for the application.
+     * The execution strategy is taken from the first command-line argument, then from the {@code travel.strategy}
+     * system property, and defaults to virtual threads. Forecasts are fetched over HTTP from the backend named by the
+     * {@code travel.weather.url} system property, e.g. a {@link LocalWeatherServer}, or simulated when it is not set.
+     * The {@code travel.page.budget.ms} system property bounds the time the page may take. When
+     * {@code travel.page.output} names a file, the page is written there in the {@code travel.page.format}
+     * (binary, csv or json; binary by default) instead of being logged. The destinations are loaded from the file
+     * named by {@code travel.destinations.file}, if set. With {@code travel.page.streaming} the page is streamed to
+     * the output file and the destinations file is read line by line, so its size is not limited by memory.
+     *
+     * @param args Optional name of the execution strategy.
+     */
+    public static void main(String[] args) throws IOException {
+        String strategyName = args.length > 0 ? args[0] : System.getProperty(STRATEGY_PROPERTY, DEFAULT_STRATEGY);
+        String weatherUrl = System.getProperty(WEATHER_URL_PROPERTY);
+        String pageBudgetMs = System.getProperty(PAGE_BUDGET_PROPERTY);
+        Duration pageBudget = pageBudgetMs != null ? Duration.ofMillis(Long.parseLong(pageBudgetMs)) : null;
+        String pageOutput = System.getProperty(PAGE_OUTPUT_PROPERTY);
+        String destinationsFile = System.getProperty(DESTINATIONS_FILE_PROPERTY);
+        boolean streaming = pageOutput != null && Boolean.getBoolean(PAGE_STREAMING_PROPERTY);
+        DestinationCatalog catalog = destinationsFile != null && !streaming
+                ? DestinationCatalog.load(Path.of(destinationsFile))
+                : DestinationCatalog.synthetic(DEFAULT_DESTINATION_COUNT);
+        try (ExecutionStrategy strategy = ExecutionStrategies.byName(strategyName);
+             HttpWeatherClient httpClient = weatherUrl != null ? new HttpWeatherClient(weatherUrl) : null;
+             BatchingWeatherClient batchingClient = new BatchingWeatherClient(
+                     httpClient != null ? httpClient : new SimulatedWeatherClient(DEFAULT_NETWORK_CALL_DELAY));
+             CachingWeatherClient weatherClient = new CachingWeatherClient(batchingClient)) {
+            log.info("Starting travel agency with the {} strategy", strategy.name());
+            TravelAgencyEngine engine = new TravelAgencyEngine(strategy, catalog, weatherClient, pageBudget);
+            TravelPageSink sink = pageOutput != null
+                    ? TravelPageSinks.byName(System.getProperty(PAGE_FORMAT_PROPERTY, BinaryTravelPageSink.NAME))
+                    : null;
+            if (streaming) {
+                try (Stream<String> feed = destinationsFile != null
+                        ? Files.lines(Path.of(destinationsFile)).map(String::strip).filter(line -> !line.isEmpty())
+                        : catalog.stream()) {
+                    engine.streamTravelPage(feed.iterator(), sink, Path.of(pageOutput));
+                }
+            } else {
+                log.info("Loaded {} destinations", catalog.size());
+                if (pageOutput != null) {
+                    engine.writeTravelPage(sink, Path.of(pageOutput));
+                } else {
+                    engine.displayTravelPage();
+                }
+            }
+            log.info("Weather backend calls: {} for {} lookups", batchingClient.batches(), batchingClient.lookups());
+        }
+    }
+}
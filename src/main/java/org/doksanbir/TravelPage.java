@@ -0,0 +1,35 @@
+package org.doksanbir;
+
+import java.util.List;
+
+/**
+ * A rendered travel page: the details of every destination, in destination order.
+ * It is the typed form of the page that {@link TravelPageSink}s serialize for downstream consumers, instead of the
+ * formatted log lines of {@link TravelAgency#displayTravelPage()}.
+ *
+ * @param destinations The details of every destination.
+ */
+public record TravelPage(List<DestinationResult> destinations) {
+
+    public TravelPage {
+        destinations = List.copyOf(destinations);
+    }
+
+    /**
+     * Returns the number of destinations on the page.
+     *
+     * @return The number of destinations.
+     */
+    public int size() {
+        return destinations.size();
+    }
+
+    /**
+     * Returns the number of destinations shown with a fallback value because they missed the page deadline.
+     *
+     * @return The number of degraded destinations.
+     */
+    public long degradedCount() {
+        return destinations.stream().filter(DestinationResult::degraded).count();
+    }
+}
@@ -0,0 +1,85 @@
+package org.doksanbir;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serializes a {@link TravelPage} for downstream consumers.
+ * Implementations write through a {@link ChannelWriter}, which fills a direct buffer and hands it to the channel
+ * only when it is full, so even pages with hundreds of thousands of destinations take few system calls and no
+ * intermediate strings of the whole page. Pages that are produced as a stream are written one destination at a time
+ * through a {@link DestinationWriter}.
+ */
+public interface TravelPageSink {
+
+    /**
+     * Returns the name used to select this sink, for example from the {@code travel.page.format} system property.
+     *
+     * @return The sink name.
+     */
+    String name();
+
+    /**
+     * Starts writing a page of unknown size to the channel, one destination at a time.
+     *
+     * @param channel The channel to write to.
+     * @return The writer of the page, which must be closed to write the end of the page.
+     * @throws IOException if the channel cannot be written.
+     */
+    DestinationWriter open(WritableByteChannel channel) throws IOException;
+
+    /**
+     * Writes the page to the channel. The channel is left open.
+     *
+     * @param page    The page to write.
+     * @param channel The channel to write to.
+     * @throws IOException if the channel cannot be written.
+     */
+    default void write(TravelPage page, WritableByteChannel channel) throws IOException {
+        try (DestinationWriter writer = open(channel)) {
+            for (DestinationResult result : page.destinations()) {
+                writer.write(result);
+            }
+        }
+    }
+
+    /**
+     * Writes the page to a file, replacing its previous contents.
+     *
+     * @param page The page to write.
+     * @param path The file to write to.
+     * @throws IOException if the file cannot be written.
+     */
+    default void write(TravelPage page, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(page, channel);
+        }
+    }
+
+    /**
+     * Writes the destinations of a page as they arrive. A writer is used by one thread at a time.
+     */
+    interface DestinationWriter extends Closeable {
+
+        /**
+         * Writes the next destination of the page.
+         *
+         * @param result The details of the destination.
+         * @throws IOException if the channel cannot be written.
+         */
+        void write(DestinationResult result) throws IOException;
+
+        /**
+         * Writes the end of the page and everything still buffered. The channel is left open.
+         *
+         * @throws IOException if the channel cannot be written.
+         */
+        @Override
+        void close() throws IOException;
+    }
+}
@@ -0,0 +1,51 @@
+package org.doksanbir;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Factory for the available {@link TravelPageSink} implementations, selectable by name like the
+ * {@link ExecutionStrategies}.
+ */
+public final class TravelPageSinks {
+
+    /**
+     * The names accepted by {@link #byName(String)}.
+     */
+    static final List<String> NAMES = List.of(
+            BinaryTravelPageSink.NAME,
+            CsvTravelPageSink.NAME,
+            JsonTravelPageSink.NAME
+    );
+
+    private TravelPageSinks() {
+    }
+
+    public static TravelPageSink binary() {
+        return new BinaryTravelPageSink();
+    }
+
+    public static TravelPageSink csv() {
+        return new CsvTravelPageSink();
+    }
+
+    public static TravelPageSink json() {
+        return new JsonTravelPageSink();
+    }
+
+    /**
+     * Creates the sink registered under the given name.
+     *
+     * @param name One of {@link #NAMES}, case-insensitive.
+     * @return A new sink.
+     * @throws IllegalArgumentException if no sink is registered under the name.
+     */
+    public static TravelPageSink byName(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case BinaryTravelPageSink.NAME -> binary();
+            case CsvTravelPageSink.NAME -> csv();
+            case JsonTravelPageSink.NAME -> json();
+            default -> throw new IllegalArgumentException("Unknown travel page format: " + name + ", expected one of " + NAMES);
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package org.doksanbir;
+
+/**
+ * A request for a sample quotation: a destination together with the number of days and people of the trip.
+ *
+ * @param destination The name of the travel destination.
+ * @param days        The number of days for the trip.
+ * @param people      The number of people traveling.
+ */
+public record TravelRequest(String destination, int days, int people) {
+}
@@ -0,0 +1,64 @@
+package org.doksanbir;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD version of the quotation arithmetic of {@link BatchQuotationCalculator}, built on the incubating Vector API.
+ * Each iteration prices a whole lane of trips: the days and people of the lane are loaded as int vectors, widened to
+ * doubles and multiplied into the daily rates with one instruction per operation. The remaining trips that do not fill
+ * a lane are priced by the scalar loop.
+ * <p>
+ * The multiplications are applied in the same order as the scalar kernel, so both produce identical results.
+ * This class must only be loaded when the {@code jdk.incubator.vector} module is present, which
+ * {@link BatchQuotationCalculator} checks before selecting it.
+ */
+final class VectorQuotationKernel {
+
+    private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * The int species with the same number of lanes as {@link #DOUBLE_SPECIES}, so a lane of days converts to exactly
+     * one lane of doubles.
+     */
+    private static final VectorSpecies<Integer> INT_SPECIES =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLE_SPECIES.vectorBitSize() / 2));
+
+    private VectorQuotationKernel() {
+    }
+
+    /**
+     * Returns the number of trips priced per vector instruction on this machine.
+     *
+     * @return The lane count of the preferred double species.
+     */
+    static int laneCount() {
+        return DOUBLE_SPECIES.length();
+    }
+
+    /**
+     * Multiplies each daily rate by the number of days and people of its trip, in place.
+     *
+     * @param quotations The daily rate of each trip on input, its quotation on output.
+     * @param days       The number of days of each trip.
+     * @param people     The number of people of each trip.
+     * @param from       The first index to price, inclusive.
+     * @param to         The last index to price, exclusive.
+     */
+    static void multiply(double[] quotations, int[] days, int[] people, int from, int to) {
+        int i = from;
+        int upperBound = from + DOUBLE_SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector rates = DoubleVector.fromArray(DOUBLE_SPECIES, quotations, i);
+            DoubleVector dayFactors = (DoubleVector) IntVector.fromArray(INT_SPECIES, days, i)
+                    .convertShape(VectorOperators.I2D, DOUBLE_SPECIES, 0);
+            DoubleVector peopleFactors = (DoubleVector) IntVector.fromArray(INT_SPECIES, people, i)
+                    .convertShape(VectorOperators.I2D, DOUBLE_SPECIES, 0);
+            rates.mul(dayFactors).mul(peopleFactors).intoArray(quotations, i);
+        }
+        BatchQuotationCalculator.multiply(quotations, days, people, i, to);
+    }
+}
@@ -4,10 +4,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.*;
-import java.util.stream.IntStream;
 
 /**
  * Demonstrates various aspects of Virtual Threads in Java, including their
@@ -30,25 +28,30 @@ public class VirtualThreadExample {
 
     /**
      * The entry point of the Java application.
+     * With {@code -Dtravel.diagnostics.pinning=true} the run is recorded with JFR and the pinned time per call site
+     * is logged at the end.
      *
      * @param args Command line arguments
      * @throws InterruptedException if the current thread is interrupted while waiting
      */
     public static void main(String[] args) throws InterruptedException {
-        // Log the start of the example
-        log.info("Starting VirtualThreadExample...");
+        // Record pinned virtual threads if pinning diagnostics are enabled
+        try (PinningMonitor pinningMonitor = PinningMonitor.startIfEnabled()) {
+            // Log the start of the example
+            log.info("Starting VirtualThreadExample...");
 
-        // Demonstrate the basic usage of Virtual Threads
-        demonstrateBasicVirtualThreads();
+            // Demonstrate the basic usage of Virtual Threads
+            demonstrateBasicVirtualThreads();
 
-        // Demonstrate the usage of Virtual Threads with an ExecutorService
-        demonstrateVirtualThreadsWithExecutorService();
+            // Demonstrate the usage of Virtual Threads with an ExecutorService
+            demonstrateVirtualThreadsWithExecutorService();
 
-        // Compare the performance of Platform Threads and Virtual Threads
-        comparePlatformAndVirtualThreads();
+            // Compare the performance of Platform Threads and Virtual Threads
+            comparePlatformAndVirtualThreads();
 
-        // Log the completion of the example
-        log.info("VirtualThreadExample completed.");
+            // Log the completion of the example
+            log.info("VirtualThreadExample completed.");
+        }
     }
 
     /**
@@ -63,11 +66,12 @@ public class VirtualThreadExample {
         Set<String> poolNames = ConcurrentHashMap.newKeySet();
         Set<String> threadNames = ConcurrentHashMap.newKeySet();
 
-        // Create and start Virtual Threads
-        List<Thread> threads = createVirtualThreads(poolNames, threadNames);
+        // Create and start Virtual Threads, tracking their completion instead of keeping every Thread
+        CompletionTracker tracker = new CompletionTracker();
+        createVirtualThreads(tracker, poolNames, threadNames);
 
-        // Measure and log the execution time of joining all Virtual Threads
-        measureExecutionTime(() -> joinThreads(threads), "Executed {} Virtual Threads", THREAD_COUNT);
+        // Measure and log the execution time of waiting for all Virtual Threads
+        measureExecutionTime(tracker::await, "Executed {} Virtual Threads", THREAD_COUNT);
 
         // Log the number of unique pool and thread names encountered
         log.info("Unique pool names: {}", poolNames.size());
@@ -119,37 +123,25 @@ public class VirtualThreadExample {
 
     /**
      * Creates and starts Virtual Threads that simulate work by sleeping for a fixed duration.
+     * The threads are not kept; the tracker counts them until they complete.
      *
+     * @param tracker     Tracker awaiting the completion of the Virtual Threads
      * @param poolNames   Set to track unique pool names used by the Virtual Threads
      * @param threadNames Set to track unique thread names used by the Virtual Threads
-     * @return A list of created Virtual Threads
      */
-    static List<Thread> createVirtualThreads(Set<String> poolNames, Set<String> threadNames) {
+    static void createVirtualThreads(CompletionTracker tracker, Set<String> poolNames, Set<String> threadNames) {
         // Log the creation of Virtual Threads
         log.info("Creating and starting {} Virtual Threads...", THREAD_COUNT);
 
         // Create and start Virtual Threads that simulate work
-        return IntStream.range(0, THREAD_COUNT)
-                .mapToObj(i -> Thread.ofVirtual().name("VirtualThread-" + i).start(() -> {
-                    // Track the current thread's pool and thread names
-                    poolNames.add(Thread.currentThread().getName());
-                    threadNames.add(Thread.currentThread().getName());
-                    // Simulate work by sleeping
-                    simulateWork();
-                }))
-                .toList();
-    }
-
-    /**
-     * Joins all the provided threads, ensuring they complete before returning.
-     *
-     * @param threads The list of threads to join
-     * @throws InterruptedException if the current thread is interrupted while waiting
-     */
-    protected static void joinThreads(List<Thread> threads) throws InterruptedException {
-        // Join each thread in the list
-        for (Thread thread : threads) {
-            thread.join();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            tracker.start(Thread.ofVirtual().name("VirtualThread-" + i), () -> {
+                // Track the current thread's pool and thread names
+                poolNames.add(Thread.currentThread().getName());
+                threadNames.add(Thread.currentThread().getName());
+                // Simulate work by sleeping
+                simulateWork();
+            });
         }
     }
 
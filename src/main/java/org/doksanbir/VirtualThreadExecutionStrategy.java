@@ -0,0 +1,47 @@
+package org.doksanbir;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs every task on its own virtual thread, as {@link VirtualThreadTravelAgency} does.
+ * A fresh virtual-thread-per-task executor is used for each call and closed before returning,
+ * so no thread outlives the page it was started for.
+ */
+public class VirtualThreadExecutionStrategy implements ExecutionStrategy {
+
+    static final String NAME = "virtual-threads";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public <T, R> List<R> executeAll(List<T> tasks, Function<? super T, ? extends R> action) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<? extends R>> futures = new ArrayList<>(tasks.size());
+            for (T task : tasks) {
+                futures.add(executor.submit(() -> action.apply(task)));
+            }
+            List<R> results = new ArrayList<>(futures.size());
+            try {
+                for (Future<? extends R> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw ExecutionStrategies.propagate(e);
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw ExecutionStrategies.interrupted(e);
+            }
+            return results;
+        }
+    }
+}
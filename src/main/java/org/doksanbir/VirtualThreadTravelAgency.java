@@ -1,29 +1,63 @@
 package org.doksanbir;
 
-import lombok.extern.slf4j.Slf4j;
+import lombok.CustomLog;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryUsage;
-import java.util.ArrayList;
-import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
-@Slf4j
-public class VirtualThreadTravelAgency {
+@CustomLog
+public class VirtualThreadTravelAgency implements TravelAgency {
 
-    private static final int DESTINATION_COUNT = 50;
-    private static final double BASE_RATE = 100.0;
+    private static final int DESTINATION_COUNT = TravelAgencyEngine.DEFAULT_DESTINATION_COUNT;
     private static final String[] DESTINATIONS = new String[DESTINATION_COUNT];
-    private static final String[] WEATHER_CONDITIONS = {
-            "Sunny", "Cloudy", "Rainy", "Stormy", "Snowy", "Windy", "Foggy", "Icy"
-    };
 
-    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    /**
+     * The latency budget of the travel page. Tasks that are not done by then are cancelled and counted as degraded.
+     */
+    private static final Duration PAGE_BUDGET = PageDeadline.DEFAULT_PAGE_BUDGET;
+
+    /**
+     * The default maximum number of tasks of {@link #displayTravelPage()} running at once.
+     */
+    static final int DEFAULT_MAX_IN_FLIGHT = 1_000;
+
+    /**
+     * Runs the tasks of {@link #displayTravelPage()} on virtual threads, with a bounded number of them in flight.
+     */
+    private final BoundedVirtualThreadExecutor executorService;
     private final AtomicInteger threadCount = new AtomicInteger(0);
+    private final AtomicInteger submittedTasks = new AtomicInteger();
+    private final AtomicInteger completedTasks = new AtomicInteger();
+
+    /**
+     * Keeps fetched forecasts for later tasks of the same destination, bounded in size and time.
+     * A miss caches the future of the fetch before it starts, so the tasks asking for a destination while it is being
+     * fetched share that one call: the 100 tasks of a destination cost a single backend call instead of 100, and no
+     * separate {@link CoalescingWeatherClient} is needed behind the cache.
+     */
+    private final CachingWeatherClient weatherCache =
+            new CachingWeatherClient(new SimulatedWeatherClient(TravelAgencyEngine.DEFAULT_NETWORK_CALL_DELAY));
+
+    /**
+     * Prices the trips and fetches the forecasts through the weather cache.
+     */
+    private final TravelAgencyEngine engine =
+            new TravelAgencyEngine(ExecutionStrategies.virtualThreads(), DESTINATION_COUNT, weatherCache);
+
+    /**
+     * The quotation of every trip the tasks can ask for, indexed by destination id, so the 100 tasks of a destination
+     * and every later page do no pricing work.
+     */
+    private final QuotationTable quotations = new QuotationTable(List.of(DESTINATIONS), this::getDailyRate);
+
+    /**
+     * Samples the days and people of the tasks without allocating a generator per task.
+     */
+    private final RequestSampler sampler = new RequestSampler();
 
     private long startTime;
     private long usedMemoryBefore;
@@ -35,37 +69,55 @@ public class VirtualThreadTravelAgency {
         }
     }
 
+    /**
+     * Creates an agency running at most {@link #DEFAULT_MAX_IN_FLIGHT} tasks at once, blocking submission beyond that.
+     */
+    public VirtualThreadTravelAgency() {
+        this(DEFAULT_MAX_IN_FLIGHT, BoundedVirtualThreadExecutor.SubmissionPolicy.BLOCK);
+    }
+
+    /**
+     * Creates an agency with a bounded number of tasks in flight.
+     *
+     * @param maxInFlight The maximum number of tasks of the travel page running at once.
+     * @param policy      What to do with a task submitted while that many are running.
+     */
+    public VirtualThreadTravelAgency(int maxInFlight, BoundedVirtualThreadExecutor.SubmissionPolicy policy) {
+        this.executorService = new BoundedVirtualThreadExecutor("virtual-task", maxInFlight, policy);
+    }
+
+    @Override
     public double getQuotation(String destination, int days, int people) {
         log.info("Calculating quotation for destination: {}", destination);
-        double rate = BASE_RATE * (1 + getDestinationRateMultiplier(destination));
-        return rate * days * people;
+        return engine.getQuotation(destination, days, people);
     }
 
-    private double getDestinationRateMultiplier(String destination) {
-        log.info("Calculating destination rate multiplier for destination: {}", destination);
-        log.info("Simulating CPU intensive task");
-        return fib(Math.abs(destination.hashCode()) % 30);
+    /**
+     * Returns the rate of the destination for one person and one day.
+     *
+     * @param destination The name of the travel destination.
+     * @return The daily rate.
+     */
+    double getDailyRate(String destination) {
+        return engine.getDailyRate(destination);
     }
 
-    private double fib(int n) {
-        if (n <= 1) return n;
-        return fib(n - 1) + fib(n - 2);
+    /**
+     * Returns the quotation of a trip from the precomputed table.
+     *
+     * @param destinationId The index of the destination in the travel page.
+     * @param days          The number of days, between 1 and 10.
+     * @param people        The number of people, between 1 and 5.
+     * @return The quotation, equal to {@link #getQuotation(String, int, int)} for the destination.
+     */
+    double getQuotation(int destinationId, int days, int people) {
+        return quotations.quotation(destinationId, days, people);
     }
 
+    @Override
     public String getWeatherForecast(String destination) {
         log.info("Fetching weather forecast for destination: {}", destination);
-        simulateNetworkCall();
-        Random random = new Random(destination.hashCode());
-        return WEATHER_CONDITIONS[random.nextInt(WEATHER_CONDITIONS.length)];
-    }
-
-    private void simulateNetworkCall() {
-        try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Thread was interrupted during simulateNetworkCall", e);
-        }
+        return engine.getWeatherForecast(destination);
     }
 
     public void displayTravelPage() {
@@ -73,13 +125,14 @@ public class VirtualThreadTravelAgency {
 
         int threadCountBefore = ManagementFactory.getThreadMXBean().getThreadCount();
         initializePerformanceMetrics();
+        PageDeadline deadline = PageDeadline.after(PAGE_BUDGET);
 
         // Submit tasks using virtual threads
-        for (String destination : DESTINATIONS) {
-            createAndSubmitVirtualThreads(destination);
+        for (int destinationId = 0; destinationId < DESTINATION_COUNT; destinationId++) {
+            createAndSubmitVirtualThreads(destinationId);
         }
 
-        awaitExecutorServiceTermination();
+        awaitExecutorServiceTermination(deadline);
         logPerformanceMetrics(threadCountBefore);
     }
 
@@ -90,30 +143,36 @@ public class VirtualThreadTravelAgency {
         totalGcDurationBefore = calculateTotalGcDuration();
     }
 
-    private void createAndSubmitVirtualThreads(String destination) {
+    private void createAndSubmitVirtualThreads(int destinationId) {
+        String destination = DESTINATIONS[destinationId];
         for (int i = 0; i < 100; i++) {
-            int days = new Random().nextInt(10) + 1;
-            int people = new Random().nextInt(5) + 1;
+            int days = sampler.sampleDays();
+            int people = sampler.samplePeople();
+            submittedTasks.incrementAndGet();
             executorService.submit(() -> {
                 threadCount.incrementAndGet();
                 long threadName = Thread.currentThread().threadId();
                 log.info("Virtual Task for destination: {} started on thread: {}", destination, threadName);
                 long taskStartTime = System.nanoTime();
                 String weather = getWeatherForecast(destination);
-                double quotation = getQuotation(destination, days, people);
+                double quotation = getQuotation(destinationId, days, people);
                 long taskEndTime = System.nanoTime();
                 log.info("Virtual Task completed for destination: {} in {} ns", destination, (taskEndTime - taskStartTime));
                 log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}", destination, weather, days, people, quotation);
+                completedTasks.incrementAndGet();
             });
         }
     }
 
-    private void awaitExecutorServiceTermination() {
+    /**
+     * Waits for the submitted tasks until the page deadline, then cancels the tasks that are still running.
+     *
+     * @param deadline The deadline of the travel page.
+     */
+    private void awaitExecutorServiceTermination(PageDeadline deadline) {
         executorService.shutdown();
-        try {
-            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-        } catch (InterruptedException e) {
-            log.error("Executor service interrupted", e);
+        if (!deadline.awaitTermination(executorService)) {
+            executorService.shutdownNow();
         }
     }
 
@@ -124,43 +183,51 @@ public class VirtualThreadTravelAgency {
         initializePerformanceMetrics();
 
 
-        ArrayList<Thread> threads = new ArrayList<>();
+        PageDeadline deadline = PageDeadline.after(PAGE_BUDGET);
+
+        CompletionTracker tracker = new CompletionTracker();
 
         // Create and start virtual threads
-        for (String destination : DESTINATIONS) {
-            createAndStartVirtualThreads(threads, destination);
+        for (int destinationId = 0; destinationId < DESTINATION_COUNT; destinationId++) {
+            createAndStartVirtualThreads(tracker, destinationId);
         }
 
-        waitForAllThreadsToComplete(threads);
+        waitForAllThreadsToComplete(tracker, deadline);
 
         logPerformanceMetrics(threadCountBefore);
 
     }
 
-    private void createAndStartVirtualThreads(ArrayList<Thread> threads, String destination) {
+    private void createAndStartVirtualThreads(CompletionTracker tracker, int destinationId) {
+        String destination = DESTINATIONS[destinationId];
         for (int i = 0; i < 100; i++) {
-            var days = new Random().nextInt(10) + 1;
-            var people = new Random().nextInt(5) + 1;
-            Thread thread = Thread.ofVirtual()
-                    .name("virtual-" + destination, 0)
-                    .start(() -> {
-                        threadCount.incrementAndGet();
-                        long threadId = Thread.currentThread().threadId();
-                        log.info("Virtual Task for destination: {} started on thread: {}", destination, threadId);
-                        long taskStartTime = System.nanoTime();
-                        String weather = getWeatherForecast(destination);
-                        double quotation = getQuotation(destination, days, people);
-                        long taskEndTime = System.nanoTime();
-                        log.info("Virtual Task completed for destination: {} in {} ns", destination, (taskEndTime - taskStartTime));
-                        log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}", destination, weather, days, people, quotation);
-                    });
-            threads.add(thread);
+            var days = sampler.sampleDays();
+            var people = sampler.samplePeople();
+            submittedTasks.incrementAndGet();
+            tracker.start(Thread.ofVirtual().name("virtual-" + destination, 0), () -> {
+                threadCount.incrementAndGet();
+                long threadId = Thread.currentThread().threadId();
+                log.info("Virtual Task for destination: {} started on thread: {}", destination, threadId);
+                long taskStartTime = System.nanoTime();
+                String weather = getWeatherForecast(destination);
+                double quotation = getQuotation(destinationId, days, people);
+                long taskEndTime = System.nanoTime();
+                log.info("Virtual Task completed for destination: {} in {} ns", destination, (taskEndTime - taskStartTime));
+                log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}", destination, weather, days, people, quotation);
+                completedTasks.incrementAndGet();
+            });
         }
     }
 
-    private void waitForAllThreadsToComplete(ArrayList<Thread> threads) throws InterruptedException {
-        for (Thread thread : threads) {
-            thread.join();
+    /**
+     * Waits for the tasks until the page deadline, then interrupts the threads that are still running.
+     *
+     * @param tracker  The tracker of the tasks of the travel page.
+     * @param deadline The deadline of the travel page.
+     */
+    private void waitForAllThreadsToComplete(CompletionTracker tracker, PageDeadline deadline) {
+        if (!deadline.await(tracker)) {
+            tracker.cancel();
         }
     }
 
@@ -170,33 +237,35 @@ public class VirtualThreadTravelAgency {
         int threadCountBefore = ManagementFactory.getThreadMXBean().getThreadCount();
         initializePerformanceMetrics();
 
-        ArrayList<Thread> threads = new ArrayList<>();
-        for (String destination : DESTINATIONS) {
-            createAndStartPlatformThreads(threads, destination);
+        PageDeadline deadline = PageDeadline.after(PAGE_BUDGET);
+
+        CompletionTracker tracker = new CompletionTracker();
+        for (int destinationId = 0; destinationId < DESTINATION_COUNT; destinationId++) {
+            createAndStartPlatformThreads(tracker, destinationId);
         }
 
-        waitForAllThreadsToComplete(threads);
+        waitForAllThreadsToComplete(tracker, deadline);
         logPerformanceMetrics(threadCountBefore);
     }
 
-    private void createAndStartPlatformThreads(ArrayList<Thread> threads, String destination) {
+    private void createAndStartPlatformThreads(CompletionTracker tracker, int destinationId) {
+        String destination = DESTINATIONS[destinationId];
         for (int i = 0; i < 2; i++) {
-            int days = new Random().nextInt(10) + 1;
-            int people = new Random().nextInt(5) + 1;
-            Thread thread = Thread.ofPlatform()
-                    .name("platform-" + destination + "-" + i, 0)
-                    .start(() -> {
-                        long threadId = Thread.currentThread().threadId();
-                        log.info("Platform Task for destination: {} started on thread: {}", destination, threadId);
-                        long taskStartTime = System.nanoTime();
-                        String weather = getWeatherForecast(destination);
-                        double quotation = getQuotation(destination, days, people);
-                        long taskEndTime = System.nanoTime();
-                        log.info("Platform Task completed for destination: {} in {} ns", destination, (taskEndTime - taskStartTime));
-                        log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}", destination, weather, days, people, quotation);
-                        threadCount.decrementAndGet();
-                    });
-            threads.add(thread);
+            int days = sampler.sampleDays();
+            int people = sampler.samplePeople();
+            submittedTasks.incrementAndGet();
+            tracker.start(Thread.ofPlatform().name("platform-" + destination + "-" + i, 0), () -> {
+                long threadId = Thread.currentThread().threadId();
+                log.info("Platform Task for destination: {} started on thread: {}", destination, threadId);
+                long taskStartTime = System.nanoTime();
+                String weather = getWeatherForecast(destination);
+                double quotation = getQuotation(destinationId, days, people);
+                long taskEndTime = System.nanoTime();
+                log.info("Platform Task completed for destination: {} in {} ns", destination, (taskEndTime - taskStartTime));
+                log.info("Destination: {}, Weather: {}, Quotation for {} days, {} people: ${}", destination, weather, days, people, quotation);
+                completedTasks.incrementAndGet();
+                threadCount.decrementAndGet();
+            });
             threadCount.incrementAndGet();
         }
     }
@@ -219,6 +288,12 @@ public class VirtualThreadTravelAgency {
         log.info("Total garbage collection time: {} ms", (totalGcDurationAfter - totalGcDurationBefore));
         log.info("Initial thread count: {}", threadCountBefore);
         log.info("Final thread count: {}", threadCount.get());
+        log.info("Weather backend calls: {}, served from the cache or a shared fetch: {}",
+                weatherCache.stats().misses(), weatherCache.stats().hits());
+        log.info("Weather cache: {}", weatherCache.stats());
+        log.info("Quotation table: {} precomputed prices", quotations.size());
+        log.info("Task executor: {}", executorService);
+        log.info("Tasks cancelled by the {} ms page deadline: {}", PAGE_BUDGET.toMillis(), submittedTasks.get() - completedTasks.get());
 
     }
 
@@ -230,10 +305,18 @@ public class VirtualThreadTravelAgency {
         return totalGcDuration;
     }
 
+    /**
+     * Displays the travel page with virtual threads. With {@code -Dtravel.diagnostics.pinning=true} the run is
+     * recorded with JFR and the pinned time per call site is logged after the performance metrics.
+     *
+     * @param args Command-line arguments (not used in this application).
+     */
     public static void main(String[] args) throws InterruptedException {
-        VirtualThreadTravelAgency agency = new VirtualThreadTravelAgency();
-        agency.displayTravelPageVirtualThreads();
-        //agency.displayTravelPage();
-        //agency.displayTravelPagePlatformThreads();
+        try (PinningMonitor pinningMonitor = PinningMonitor.startIfEnabled()) {
+            VirtualThreadTravelAgency agency = new VirtualThreadTravelAgency();
+            agency.displayTravelPageVirtualThreads();
+            //agency.displayTravelPage();
+            //agency.displayTravelPagePlatformThreads();
+        }
     }
 }
@@ -0,0 +1,38 @@
+package org.doksanbir;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A source of weather forecasts for travel destinations.
+ * Implementations either call the (simulated) weather backend or wrap another client to add behaviour such as
+ * request coalescing, so the travel agencies can compose them without changing their own code.
+ */
+@FunctionalInterface
+public interface WeatherClient {
+
+    /**
+     * Fetches the weather forecast for the specified destination, blocking until it is available.
+     *
+     * @param destination The name of the travel destination.
+     * @return The weather condition forecast for the destination.
+     */
+    String fetchForecast(String destination);
+
+    /**
+     * Fetches the weather forecasts of several destinations, blocking until all of them are available.
+     * The default implementation fetches them one at a time; clients talking to a backend with a bulk endpoint
+     * override it to fetch the whole collection in a single call.
+     *
+     * @param destinations The names of the travel destinations.
+     * @return The forecast of every destination, in the iteration order of the collection.
+     */
+    default Map<String, String> fetchForecasts(Collection<String> destinations) {
+        Map<String, String> forecasts = new LinkedHashMap<>();
+        for (String destination : destinations) {
+            forecasts.computeIfAbsent(destination, this::fetchForecast);
+        }
+        return forecasts;
+    }
+}
@@ -0,0 +1,144 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testLimitGrowsWhileBackendKeepsUp() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(4, 1, 20);
+
+        for (int round = 0; round < 10; round++) {
+            runRound(limiter, limiter.limit(), LATENCY, false);
+        }
+
+        assertEquals(20, limiter.limit(), "A healthy, saturated backend should let the limit grow to its maximum");
+        assertEquals(0, limiter.decreases());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenCallersDoNotUseIt() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 1, 20);
+
+        for (int round = 0; round < 10; round++) {
+            runRound(limiter, 2, LATENCY, false);
+        }
+
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void testLimitBacksOffOncePerWindowWhenLatencyRises() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(20, 2, 20);
+        runRound(limiter, 1, LATENCY, false);
+
+        runRound(limiter, 10, 3 * LATENCY, false);
+        assertEquals(18, limiter.limit(), "Ten slow calls of the same window should back off only once");
+
+        for (int round = 0; round < 4; round++) {
+            runRound(limiter, 10, 3 * LATENCY, false);
+        }
+        assertEquals(11, limiter.limit(), "Every window of slow calls should back off again");
+
+        for (int round = 0; round < 50; round++) {
+            runRound(limiter, 2, LATENCY, true);
+        }
+        assertEquals(2, limiter.limit(), "The limit should never drop below its minimum");
+    }
+
+    @Test
+    void testFailuresLowerTheLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 1, 20);
+
+        runRound(limiter, 1, LATENCY, true);
+
+        assertEquals(9, limiter.limit());
+        assertEquals(1, limiter.decreases());
+    }
+
+    @Test
+    void testFastFailureDoesNotLowerTheBaseline() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 1, 20);
+        runRound(limiter, 1, LATENCY, false);
+
+        runRound(limiter, 1, TimeUnit.MILLISECONDS.toNanos(1), true);
+        assertEquals(9, limiter.limit(), "The failure itself should back off");
+
+        for (int round = 0; round < 10; round++) {
+            runRound(limiter, limiter.limit(), LATENCY, false);
+        }
+        assertEquals(20, limiter.limit(), "Calls at the normal latency should let the limit grow back");
+        assertEquals(1, limiter.decreases());
+    }
+
+    @Test
+    void testCallersWaitForAPermit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(1, 1, 1);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+
+        assertNull(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                throw ExecutionStrategies.interrupted(e);
+            }
+        });
+        while (limiter.waits() < 2) {
+            Thread.onSpinWait();
+        }
+        assertFalse(second.isDone());
+
+        first.onSuccess();
+        second.get(5, TimeUnit.SECONDS).onSuccess();
+        assertEquals(0, limiter.inFlight());
+        assertThrows(IllegalStateException.class, first::onSuccess);
+    }
+
+    @Test
+    void testWeatherClientFailuresAreDropped() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 1, 20);
+        LimitingWeatherClient client = new LimitingWeatherClient(destination -> {
+            throw new IllegalStateException("backend down");
+        }, limiter);
+
+        assertThrows(IllegalStateException.class, () -> client.fetchForecast("Destination_1"));
+        assertEquals(9, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, 0.9, 2.0, clock::get);
+    }
+
+    /**
+     * Starts the given number of calls together, lets the given latency pass and completes them all.
+     */
+    private void runRound(AdaptiveConcurrencyLimiter limiter, int calls, long latencyNanos, boolean dropped)
+            throws InterruptedException {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            permits.add(limiter.acquire());
+        }
+        clock.addAndGet(latencyNanos);
+        for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+            if (dropped) {
+                permit.onDropped();
+            } else {
+                permit.onSuccess();
+            }
+        }
+    }
+}
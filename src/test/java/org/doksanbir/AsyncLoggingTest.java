@@ -0,0 +1,161 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLoggingTest {
+
+    private static final Logger DELEGATE = LoggerFactory.getLogger(AsyncLoggingTest.class);
+
+    @Test
+    void testFlushWaitsForEverythingPublishedBefore() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AsyncLogging logging = new AsyncLogging(16, AsyncLogging.OverflowPolicy.BLOCK, new PrintStream(bytes, true))) {
+            Logger log = logging.logger(DELEGATE);
+            for (int i = 0; i < 1000; i++) {
+                log.info("Message {} of {}", i, 1000);
+            }
+            logging.flush();
+
+            List<String> lines = lines(bytes);
+            assertEquals(1000, lines.size(), "flush() should return only once every earlier message is written");
+            assertEquals(1000, logging.written());
+            for (int i = 0; i < lines.size(); i++) {
+                String expected = "] INFO " + AsyncLoggingTest.class.getName() + " - Message " + i + " of 1000";
+                assertTrue(lines.get(i).endsWith(expected), "Messages should be written in publication order: " + lines.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testDropPolicyCountsMessagesLoggedWhileTheBufferIsFull() throws InterruptedException {
+        BlockingOutput output = new BlockingOutput();
+        AsyncLogging logging = new AsyncLogging(4, AsyncLogging.OverflowPolicy.DROP, new PrintStream(output, true));
+        Logger log = logging.logger(DELEGATE);
+
+        log.info("first");
+        assertTrue(output.writing.await(5, TimeUnit.SECONDS), "The writer should be writing the first message");
+        for (int i = 0; i < 14; i++) {
+            log.info("queued {}", i);
+        }
+        assertEquals(10, logging.dropped(), "Only the 4 messages that fit in the buffer should be kept");
+
+        output.release.countDown();
+        logging.close();
+
+        List<String> lines = lines(output.bytes);
+        assertEquals(6, lines.size(), "1 written + 4 buffered messages + the dropped warning");
+        assertTrue(lines.get(4).endsWith(" - queued 3"));
+        assertTrue(lines.get(5).contains("Dropped 10 log messages"));
+    }
+
+    @Test
+    void testBlockPolicyLosesNoMessages() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncLogging logging = new AsyncLogging(2, AsyncLogging.OverflowPolicy.BLOCK, new PrintStream(bytes, true));
+        Logger log = logging.logger(DELEGATE);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 500; i++) {
+                    log.info("Thread {} message {}", thread, i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        logging.close();
+
+        assertEquals(0, logging.dropped());
+        assertEquals(2000, logging.written());
+        assertEquals(2000, lines(bytes).size());
+    }
+
+    @Test
+    void testMessagesLoggedAfterCloseAreWrittenSynchronously() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncLogging logging = new AsyncLogging(16, AsyncLogging.OverflowPolicy.BLOCK, new PrintStream(bytes, true));
+        Logger log = logging.logger(DELEGATE);
+        logging.close();
+
+        log.warn("late {}", "message");
+
+        List<String> lines = lines(bytes);
+        assertEquals(1, lines.size(), "The message should be written before the log call returns");
+        assertEquals("[" + Thread.currentThread().getName() + "] WARN " + AsyncLoggingTest.class.getName()
+                + " - late message", lines.get(0));
+    }
+
+    @Test
+    void testMutableArgumentsAreFormattedAsTheyWereWhenLogged() throws InterruptedException {
+        BlockingOutput output = new BlockingOutput();
+        AsyncLogging logging = new AsyncLogging(16, AsyncLogging.OverflowPolicy.BLOCK, new PrintStream(output, true));
+        Logger log = logging.logger(DELEGATE);
+        StringBuilder state = new StringBuilder("before");
+        int[] counts = {1, 2};
+
+        log.info("first");
+        assertTrue(output.writing.await(5, TimeUnit.SECONDS), "The writer should be writing the first message");
+        log.info("State: {}", state);
+        log.info("State: {}, counts: {}, pool: {}", state, counts, List.of(state));
+        state.replace(0, state.length(), "after");
+        counts[0] = 3;
+
+        output.release.countDown();
+        logging.close();
+
+        List<String> lines = lines(output.bytes);
+        assertTrue(lines.get(1).endsWith(" - State: before"), lines.get(1));
+        assertTrue(lines.get(2).endsWith(" - State: before, counts: [1, 2], pool: [before]"), lines.get(2));
+    }
+
+    private static List<String> lines(ByteArrayOutputStream bytes) {
+        String text = bytes.toString(StandardCharsets.UTF_8);
+        return text.isEmpty() ? List.of() : List.of(text.split(System.lineSeparator()));
+    }
+
+    /**
+     * An output that blocks the writer thread in its first write until it is released.
+     */
+    private static final class BlockingOutput extends OutputStream {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            synchronized (bytes) {
+                bytes.write(b, off, len);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.doksanbir;
 
 import org.junit.jupiter.api.*;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.concurrent.*;
 
@@ -8,34 +9,36 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class AsyncTravelAgencyTest {
 
+    private final TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), 5, Duration.ZERO);
+    private final AsyncTravelAgency agency = new AsyncTravelAgency(engine);
+
     @Test
-    void testCalculateQuotation() {
+    void testGetQuotation() {
         String destination = "Destination_1";
         int days = 5;
         int people = 2;
-        double quotation = AsyncTravelAgency.calculateQuotation(destination, days, people);
+        double quotation = agency.getQuotation(destination, days, people);
         assertTrue(quotation > 0, "Quotation should be positive");
+        assertEquals(engine.getQuotation(destination, days, people), quotation, "Quotation should be the engine's");
     }
 
     @Test
     void testGetWeatherForecast() {
         String destination = "Destination_1";
-        String weather = AsyncTravelAgency.getWeatherForecast(destination);
-        assertTrue(Arrays.asList(AsyncTravelAgency.WEATHER_CONDITIONS).contains(weather), "Weather forecast should be valid");
+        String weather = agency.getWeatherForecast(destination);
+        assertTrue(Arrays.asList(TravelAgencyEngine.WEATHER_CONDITIONS).contains(weather), "Weather forecast should be valid");
     }
 
     @Test
     void testProcessDestination()  {
-        int destinationIndex = 0;
-        CompletableFuture<Void> task = AsyncTravelAgency.processDestination(destinationIndex);
+        TravelRequest trip = new TravelRequest("Destination_1", 3, 2);
+        CompletableFuture<Void> task = agency.processDestination(trip, PageDeadline.after(PageDeadline.DEFAULT_PAGE_BUDGET));
         assertDoesNotThrow(() -> task.get(), "Destination processing should complete without exception");
     }
 
     @Test
-    void testPerformanceMetricsLogging() {
-        AsyncTravelAgency.PerformanceMetrics metrics = AsyncTravelAgency.startPerformanceTracking();
-        assertNotNull(metrics, "Performance metrics should not be null");
-
+    void testDisplayTravelPage() {
+        assertDoesNotThrow(agency::displayTravelPage, "The travel page should be displayed without exceptions");
     }
 
     @Test
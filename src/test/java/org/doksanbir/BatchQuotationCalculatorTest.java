@@ -0,0 +1,83 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchQuotationCalculatorTest {
+
+    private static final int DESTINATION_COUNT = 50;
+
+    private final TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), DESTINATION_COUNT, Duration.ZERO);
+    private final BatchQuotationCalculator calculator = engine.batchQuotationCalculator();
+
+    @Test
+    void testBatchMatchesSingleQuotations() {
+        int size = 1_000;
+        int[] destinationIds = new int[size];
+        int[] days = new int[size];
+        int[] people = new int[size];
+        fillBatch(destinationIds, days, people);
+
+        double[] quotations = new double[size];
+        calculator.calculate(destinationIds, days, people, quotations);
+
+        for (int i = 0; i < size; i++) {
+            String destination = "Destination_" + (destinationIds[i] + 1);
+            assertEquals(engine.getQuotation(destination, days[i], people[i]), quotations[i], "Trip " + i);
+        }
+    }
+
+    @Test
+    void testParallelBatchMatchesSequentialBatch() {
+        int size = BatchQuotationCalculator.PARALLEL_CHUNK_SIZE * 4 + 17;
+        int[] destinationIds = new int[size];
+        int[] days = new int[size];
+        int[] people = new int[size];
+        fillBatch(destinationIds, days, people);
+
+        double[] sequential = new double[size];
+        double[] parallel = new double[size];
+        calculator.calculate(destinationIds, days, people, sequential);
+        calculator.calculateParallel(destinationIds, days, people, parallel);
+
+        assertArrayEquals(sequential, parallel);
+    }
+
+    @Test
+    void testVectorKernelMatchesScalarKernel() {
+        int size = 1_003;
+        int[] destinationIds = new int[size];
+        int[] days = new int[size];
+        int[] people = new int[size];
+        fillBatch(destinationIds, days, people);
+        double[] scalar = new double[size];
+        for (int i = 0; i < size; i++) {
+            scalar[i] = engine.getDailyRate("Destination_" + (destinationIds[i] + 1));
+        }
+        double[] vector = scalar.clone();
+
+        BatchQuotationCalculator.multiply(scalar, days, people, 0, size);
+        VectorQuotationKernel.multiply(vector, days, people, 0, size);
+
+        assertArrayEquals(scalar, vector);
+    }
+
+    @Test
+    void testMismatchedArraysAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> calculator.calculate(new int[3], new int[3], new int[2], new double[3]));
+    }
+
+    private static void fillBatch(int[] destinationIds, int[] days, int[] people) {
+        Random random = new Random(7);
+        for (int i = 0; i < destinationIds.length; i++) {
+            destinationIds[i] = random.nextInt(DESTINATION_COUNT);
+            days[i] = random.nextInt(10) + 1;
+            people[i] = random.nextInt(5) + 1;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchingWeatherClientTest {
+
+    private static final Duration LONG_DELAY = Duration.ofMinutes(1);
+
+    @Test
+    void testFullBatchesAreDispatchedBySize() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        WeatherClient backend = recordingBackend(batchSizes);
+        List<String> destinations = destinations(300);
+
+        try (BatchingWeatherClient client = new BatchingWeatherClient(backend, 100, LONG_DELAY)) {
+            Map<String, String> forecasts = client.fetchForecasts(destinations);
+
+            assertEquals(destinations, List.copyOf(forecasts.keySet()));
+            destinations.forEach(destination -> assertEquals("Sunny " + destination, forecasts.get(destination)));
+            assertEquals(3, client.batches());
+            assertEquals(300, client.lookups());
+        }
+        assertEquals(List.of(100, 100, 100), batchSizes);
+    }
+
+    @Test
+    void testPartialBatchIsDispatchedByTime() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        try (BatchingWeatherClient client = new BatchingWeatherClient(recordingBackend(batchSizes), 100, Duration.ofMillis(5))) {
+            CompletableFuture<String> first = client.fetchForecastAsync("Destination_1");
+            CompletableFuture<String> second = client.fetchForecastAsync("Destination_2");
+            CompletableFuture<String> duplicate = client.fetchForecastAsync("Destination_1");
+
+            assertEquals("Sunny Destination_1", first.join());
+            assertEquals("Sunny Destination_2", second.join());
+            assertSame(first, duplicate, "Lookups of a pending destination should share its result");
+            assertEquals(1, client.batches());
+            assertEquals(3, client.lookups());
+        }
+        assertEquals(List.of(2), batchSizes);
+    }
+
+    @Test
+    void testFailureFailsEveryLookupOfTheBatch() {
+        WeatherClient backend = new WeatherClient() {
+            @Override
+            public String fetchForecast(String destination) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Map<String, String> fetchForecasts(Collection<String> destinations) {
+                throw new IllegalStateException("backend down");
+            }
+        };
+
+        try (BatchingWeatherClient client = new BatchingWeatherClient(backend, 2, LONG_DELAY)) {
+            CompletableFuture<String> first = client.fetchForecastAsync("Destination_1");
+            CompletableFuture<String> second = client.fetchForecastAsync("Destination_2");
+
+            assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, first::join).getCause());
+            assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, second::join).getCause());
+            assertThrows(IllegalStateException.class, () -> client.fetchForecasts(List.of("Destination_3", "Destination_4")));
+        }
+    }
+
+    @Test
+    void testCloseDispatchesPendingLookups() {
+        BatchingWeatherClient client = new BatchingWeatherClient(recordingBackend(new ArrayList<>()), 100, LONG_DELAY);
+        CompletableFuture<String> forecast = client.fetchForecastAsync("Destination_1");
+
+        client.close();
+
+        assertEquals("Sunny Destination_1", forecast.join());
+    }
+
+    @Test
+    void testLookupsAfterCloseAreRejected() {
+        BatchingWeatherClient client = new BatchingWeatherClient(recordingBackend(new ArrayList<>()), 100, LONG_DELAY);
+        client.close();
+
+        assertThrows(IllegalStateException.class, () -> client.fetchForecastAsync("Destination_1"));
+        assertThrows(IllegalStateException.class, () -> client.fetchForecast("Destination_1"));
+        assertEquals(0, client.lookups());
+    }
+
+    @Test
+    void testCacheFetchesMissesWithOneBulkCall() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CachingWeatherClient cache = new CachingWeatherClient(recordingBackend(batchSizes));
+
+        cache.fetchForecast("Destination_1");
+        Map<String, String> forecasts = cache.fetchForecasts(destinations(10));
+
+        assertEquals(10, forecasts.size());
+        assertEquals(List.of(1, 9), batchSizes, "Only the nine misses should reach the backend, in one call");
+    }
+
+    private static WeatherClient recordingBackend(List<Integer> batchSizes) {
+        return new WeatherClient() {
+            @Override
+            public String fetchForecast(String destination) {
+                return fetchForecasts(List.of(destination)).get(destination);
+            }
+
+            @Override
+            public Map<String, String> fetchForecasts(Collection<String> destinations) {
+                batchSizes.add(destinations.size());
+                Map<String, String> forecasts = new LinkedHashMap<>();
+                destinations.forEach(destination -> forecasts.put(destination, "Sunny " + destination));
+                return forecasts;
+            }
+        };
+    }
+
+    private static List<String> destinations(int count) {
+        List<String> destinations = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            destinations.add("Destination_" + i);
+        }
+        return destinations;
+    }
+}
@@ -0,0 +1,82 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedVirtualThreadExecutorTest {
+
+    @Test
+    void testInFlightTasksNeverExceedTheLimit() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+
+        try (var executor = new BoundedVirtualThreadExecutor("test", 4, BoundedVirtualThreadExecutor.SubmissionPolicy.BLOCK)) {
+            for (int i = 0; i < 100; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                });
+            }
+        }
+
+        assertEquals(100, completed.get());
+        assertTrue(maxRunning.get() <= 4, "At most 4 tasks should run at once, saw " + maxRunning.get());
+    }
+
+    @Test
+    void testSaturatedExecutorRejectsOrRunsInCaller() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (var rejecting = new BoundedVirtualThreadExecutor("reject", 1, BoundedVirtualThreadExecutor.SubmissionPolicy.REJECT);
+             var callerRuns = new BoundedVirtualThreadExecutor("caller", 1, BoundedVirtualThreadExecutor.SubmissionPolicy.CALLER_RUNS)) {
+            rejecting.execute(blocker);
+            assertThrows(RejectedExecutionException.class, () -> rejecting.execute(() -> {
+            }));
+            assertEquals(1, rejecting.rejected());
+
+            callerRuns.execute(blocker);
+            Thread caller = Thread.currentThread();
+            AtomicInteger ranInCaller = new AtomicInteger();
+            callerRuns.execute(() -> {
+                if (Thread.currentThread() == caller) {
+                    ranInCaller.incrementAndGet();
+                }
+            });
+            assertEquals(1, ranInCaller.get());
+            assertEquals(1, callerRuns.callerRuns());
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testPermitIsReturnedWhenTaskFails() throws InterruptedException {
+        var executor = new BoundedVirtualThreadExecutor("failing", 1, BoundedVirtualThreadExecutor.SubmissionPolicy.REJECT);
+        executor.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.inFlight());
+    }
+}
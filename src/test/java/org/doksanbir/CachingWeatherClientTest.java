@@ -0,0 +1,147 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingWeatherClientTest {
+
+    private static final Duration TTL = Duration.ofSeconds(10);
+    private static final Duration REFRESH_AFTER = Duration.ofSeconds(8);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> backendCalls = new ArrayList<>();
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+    private CachingWeatherClient cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CachingWeatherClient(destination -> {
+            backendCalls.add(destination);
+            return "Forecast-" + backendCalls.size();
+        }, TTL, 2, REFRESH_AFTER, clock::get, pendingRefreshes::add);
+    }
+
+    @Test
+    void testHitAfterMiss() {
+        assertEquals("Forecast-1", cache.fetchForecast("Destination_1"));
+        assertEquals("Forecast-1", cache.fetchForecast("Destination_1"));
+
+        assertEquals(List.of("Destination_1"), backendCalls);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testEntryExpiresAfterTtl() {
+        cache.fetchForecast("Destination_1");
+        clock.addAndGet(TTL.toNanos());
+
+        assertEquals("Forecast-2", cache.fetchForecast("Destination_1"));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        cache.fetchForecast("Destination_1");
+        cache.fetchForecast("Destination_2");
+        cache.fetchForecast("Destination_1");
+        cache.fetchForecast("Destination_3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.stats().evictions());
+        cache.fetchForecast("Destination_1");
+        assertEquals(3, backendCalls.size(), "Destination_1 was recently used and should still be cached");
+        cache.fetchForecast("Destination_2");
+        assertEquals(4, backendCalls.size(), "Destination_2 should have been evicted");
+    }
+
+    @Test
+    void testRefreshAheadServesCachedValueAndRenewsInBackground() {
+        cache.fetchForecast("Destination_1");
+        clock.addAndGet(REFRESH_AFTER.toNanos());
+
+        assertEquals("Forecast-1", cache.fetchForecast("Destination_1"), "The cached forecast is served while refreshing");
+        assertEquals("Forecast-1", cache.fetchForecast("Destination_1"));
+        assertEquals(1, pendingRefreshes.size(), "Only one refresh is scheduled per entry");
+
+        pendingRefreshes.getFirst().run();
+        clock.addAndGet(REFRESH_AFTER.toNanos());
+
+        assertEquals("Forecast-2", cache.fetchForecast("Destination_1"), "The refreshed forecast has not expired");
+        assertEquals(1, cache.stats().refreshes());
+        assertEquals(0, cache.stats().expirations());
+    }
+
+    @Test
+    void testAsyncMissSharesOneFetchStartedOutsideTheCaller() {
+        CompletableFuture<String> first = cache.fetchForecastAsync("Destination_1");
+        CompletableFuture<String> second = cache.fetchForecastAsync("Destination_1");
+
+        assertSame(first, second, "Concurrent requests share the same future");
+        assertFalse(first.isDone(), "The fetch runs on the executor, not on the caller");
+        assertTrue(backendCalls.isEmpty());
+
+        pendingRefreshes.getFirst().run();
+
+        assertEquals("Forecast-1", first.join());
+        assertEquals(1, backendCalls.size());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void testFailedFetchIsNotCached() {
+        AtomicLong attempts = new AtomicLong();
+        CachingWeatherClient failingCache = new CachingWeatherClient(destination -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("backend down");
+            }
+            return "Sunny";
+        }, TTL, 2, REFRESH_AFTER, clock::get, Runnable::run);
+
+        assertThrows(IllegalStateException.class, () -> failingCache.fetchForecast("Destination_1"));
+        assertEquals("Sunny", failingCache.fetchForecast("Destination_1"));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testRejectedAsyncFetchIsNotCached() {
+        CachingWeatherClient rejectingCache = new CachingWeatherClient(destination -> "Sunny", TTL, 2, REFRESH_AFTER,
+                clock::get, task -> {
+                    throw new RejectedExecutionException();
+                });
+
+        CompletableFuture<String> forecast = rejectingCache.fetchForecastAsync("Destination_1");
+
+        assertInstanceOf(RejectedExecutionException.class, assertThrows(CompletionException.class, forecast::join).getCause());
+        assertEquals(0, rejectingCache.size(), "The failed entry should be removed, not left to expire");
+        assertEquals("Sunny", rejectingCache.fetchForecast("Destination_1"));
+    }
+
+    @Test
+    void testCloseStopsTheExecutorAndRefreshAhead() {
+        cache.fetchForecast("Destination_1");
+        clock.addAndGet(REFRESH_AFTER.toNanos());
+        cache.close();
+
+        assertEquals("Forecast-1", cache.fetchForecast("Destination_1"), "Cached forecasts are still served");
+        assertTrue(pendingRefreshes.isEmpty(), "No refresh should be scheduled once the cache is closed");
+
+        CachingWeatherClient ownedCache = new CachingWeatherClient(destination -> "Sunny");
+        ownedCache.close();
+        CompletableFuture<String> forecast = ownedCache.fetchForecastAsync("Destination_1");
+        assertInstanceOf(RejectedExecutionException.class, assertThrows(CompletionException.class, forecast::join).getCause());
+        assertEquals("Sunny", ownedCache.fetchForecast("Destination_1"));
+    }
+}
@@ -0,0 +1,83 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingWeatherClientTest {
+
+    private static final int CALLERS = 100;
+
+    @Test
+    void testConcurrentRequestsShareOneBackendCall() throws Exception {
+        AtomicInteger backendCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CoalescingWeatherClient client = new CoalescingWeatherClient(destination -> {
+            backendCalls.incrementAndGet();
+            awaitQuietly(release);
+            return "Sunny";
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> forecasts = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                forecasts.add(executor.submit(() -> client.fetchForecast("Destination_1")));
+            }
+            while (client.coalescedCalls() < CALLERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> forecast : forecasts) {
+                assertEquals("Sunny", forecast.get());
+            }
+        }
+        assertEquals(1, backendCalls.get());
+        assertEquals(1, client.backendCalls());
+        assertEquals(CALLERS - 1, client.coalescedCalls());
+    }
+
+    @Test
+    void testFailureIsSharedAndNotRemembered() throws Exception {
+        AtomicInteger backendCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CoalescingWeatherClient client = new CoalescingWeatherClient(destination -> {
+            if (backendCalls.incrementAndGet() == 1) {
+                awaitQuietly(release);
+                throw new IllegalStateException("backend down");
+            }
+            return "Rainy";
+        });
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> client.fetchForecast("Destination_1"));
+        while (client.backendCalls() < 1) {
+            Thread.onSpinWait();
+        }
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> client.fetchForecast("Destination_1"));
+        while (client.coalescedCalls() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, first::join).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, second::join).getCause());
+        assertEquals("Rainy", client.fetchForecast("Destination_1"), "A new request should start a new call");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrackerTest {
+
+    @Test
+    void testAwaitsEveryStartedTask() throws InterruptedException {
+        CompletionTracker tracker = new CompletionTracker();
+        AtomicInteger finished = new AtomicInteger();
+
+        for (int i = 0; i < 10_000; i++) {
+            tracker.start(Thread.ofVirtual(), finished::incrementAndGet);
+        }
+        tracker.await();
+
+        assertEquals(10_000, finished.get());
+        assertEquals(0, tracker.pending());
+        assertEquals(10_000, tracker.completed());
+    }
+
+    @Test
+    void testFailedTasksAreCounted() throws InterruptedException {
+        CompletionTracker tracker = new CompletionTracker();
+
+        tracker.start(Thread.ofVirtual(), () -> {
+        });
+        tracker.start(Thread.ofVirtual().uncaughtExceptionHandler((thread, e) -> {
+        }), () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertTrue(tracker.await(5, TimeUnit.SECONDS));
+        assertEquals(1, tracker.completed());
+        assertEquals(1, tracker.failed());
+    }
+
+    @Test
+    void testTimedAwaitAndCancel() throws InterruptedException {
+        CompletionTracker tracker = new CompletionTracker();
+        CountDownLatch started = new CountDownLatch(1);
+
+        tracker.start(Thread.ofVirtual(), () -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+
+        assertFalse(tracker.await(50, TimeUnit.MILLISECONDS));
+        assertEquals(1, tracker.cancel());
+        assertTrue(tracker.await(5, TimeUnit.SECONDS), "The interrupted task should finish");
+    }
+}
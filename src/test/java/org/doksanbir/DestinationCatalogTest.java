@@ -0,0 +1,48 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DestinationCatalogTest {
+
+    @Test
+    void testSyntheticCatalogLooksUpIdsAndNames() {
+        DestinationCatalog catalog = DestinationCatalog.synthetic(100_000);
+
+        assertEquals(100_000, catalog.size());
+        assertEquals("Destination_1", catalog.name(0));
+        assertEquals("Destination_100000", catalog.get(99_999));
+        assertEquals(41_999, catalog.id("Destination_42000"));
+        assertEquals(-1, catalog.id("Destination_100001"));
+        assertTrue(catalog.contains("Destination_7"));
+        assertFalse(catalog.contains(7));
+    }
+
+    @Test
+    void testDuplicateNamesShareTheirFirstId() {
+        DestinationCatalog catalog = DestinationCatalog.of(List.of("Paris", "Rome", "Paris", "Oslo"));
+
+        assertEquals(List.of("Paris", "Rome", "Oslo"), catalog);
+        assertEquals(2, catalog.id("Oslo"));
+    }
+
+    @Test
+    void testLoadSkipsBlankLinesAndKeepsUtf8Names(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("destinations.txt");
+        Files.writeString(file, "  İstanbul \n\nZürich\nİstanbul\n", StandardCharsets.UTF_8);
+
+        DestinationCatalog catalog = DestinationCatalog.load(file);
+
+        assertEquals(List.of("İstanbul", "Zürich"), catalog);
+        assertEquals(1, catalog.id("Zürich"));
+        assertThrows(IndexOutOfBoundsException.class, () -> catalog.name(2));
+    }
+}
@@ -0,0 +1,158 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DestinationPipelineTest {
+
+    private static final int MAX_IN_FLIGHT = 8;
+
+    private final TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), 50, Duration.ZERO);
+
+    @Test
+    void testEveryTripIsWrittenOnceWithTheEnginePricing() throws IOException {
+        List<String> destinations = DestinationCatalog.synthetic(5_000);
+        List<TravelRequest> trips = new ArrayList<>();
+        TravelAgencyEngine.planTrips(destinations.iterator()).forEachRemaining(trips::add);
+        Set<String> written = new HashSet<>();
+        TravelPageSink.DestinationWriter writer = new TravelPageSink.DestinationWriter() {
+            @Override
+            public void write(DestinationResult result) {
+                assertTrue(written.add(result.destination()), "Written twice: " + result.destination());
+                assertEquals(engine.getQuotation(result.destination(), result.days(), result.people()), result.quotation());
+                assertEquals(SimulatedWeatherClient.selectForecast(result.destination()), result.weather());
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        try (ExecutorTopology executors = new ExecutorTopology("test", 2, ExecutorTopology.IoMode.VIRTUAL)) {
+            long count = new DestinationPipeline(engine, executors, MAX_IN_FLIGHT).run(trips.iterator(), writer);
+
+            assertEquals(trips.size(), count);
+            assertEquals(Set.copyOf(destinations), written);
+        }
+    }
+
+    @Test
+    void testFeedIsOnlyReadAsFastAsThePageIsWritten() throws IOException {
+        AtomicLong produced = new AtomicLong();
+        AtomicLong maxAhead = new AtomicLong();
+        Iterator<TravelRequest> feed = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return produced.get() < 20_000;
+            }
+
+            @Override
+            public TravelRequest next() {
+                return new TravelRequest("Destination_" + produced.incrementAndGet(), 1, 1);
+            }
+        };
+        TravelPageSink.DestinationWriter writer = new TravelPageSink.DestinationWriter() {
+            private long written;
+
+            @Override
+            public void write(DestinationResult result) {
+                written++;
+                maxAhead.accumulateAndGet(produced.get() - written, Math::max);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        try (ExecutorTopology executors = new ExecutorTopology("test", 2, ExecutorTopology.IoMode.VIRTUAL)) {
+            assertEquals(20_000, new DestinationPipeline(engine, executors, MAX_IN_FLIGHT).run(feed, writer));
+        }
+        // Bounded by the stage buffers and items in flight, not by the length of the feed
+        assertTrue(maxAhead.get() <= 8 * MAX_IN_FLIGHT, "The feed ran " + maxAhead.get() + " trips ahead of the page");
+    }
+
+    @Test
+    void testCpuExecutorIsNotHeldWhileThePageIsBlocked() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TravelPageSink.DestinationWriter writer = new TravelPageSink.DestinationWriter() {
+            @Override
+            public void write(DestinationResult result) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        List<TravelRequest> trips = new ArrayList<>();
+        TravelAgencyEngine.planTrips(DestinationCatalog.synthetic(1_000).iterator()).forEachRemaining(trips::add);
+
+        try (ExecutorTopology executors = new ExecutorTopology("test", 1, ExecutorTopology.IoMode.VIRTUAL);
+             ExecutorService page = Executors.newSingleThreadExecutor()) {
+            Future<Long> written = page.submit(() -> new DestinationPipeline(engine, executors, MAX_IN_FLIGHT).run(trips.iterator(), writer));
+            try {
+                Thread.sleep(200);
+
+                // With the stage results published from the delivery threads, the single CPU thread stays available
+                assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> { }, executors.cpu()).get(5, TimeUnit.SECONDS));
+                assertFalse(written.isDone(), "The page should still be waiting for the writer");
+            } finally {
+                release.countDown();
+            }
+            assertEquals(trips.size(), written.get(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testWriterFailureStopsThePipeline() {
+        TravelPageSink.DestinationWriter writer = new TravelPageSink.DestinationWriter() {
+            @Override
+            public void write(DestinationResult result) throws IOException {
+                throw new IOException("Disk full");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Iterator<TravelRequest> endless = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public TravelRequest next() {
+                return new TravelRequest("Destination_1", 1, 1);
+            }
+        };
+
+        try (ExecutorTopology executors = new ExecutorTopology("test", 2, ExecutorTopology.IoMode.VIRTUAL)) {
+            IOException failure = assertThrows(IOException.class,
+                    () -> new DestinationPipeline(engine, executors, MAX_IN_FLIGHT).run(endless, writer));
+            assertEquals("Disk full", failure.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorTopologyTest {
+
+    @Test
+    void testCpuExecutorQueuesTasksBeyondItsThreads() throws InterruptedException {
+        try (ExecutorTopology executors = new ExecutorTopology("test", 2, ExecutorTopology.IoMode.VIRTUAL)) {
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 5; i++) {
+                executors.cpu().execute(() -> awaitUninterruptibly(release));
+            }
+            waitUntil(() -> executors.cpu().active() == 2);
+
+            assertEquals(3, executors.cpu().queueDepth());
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testIoExecutorRunsBlockingTasksConcurrently() {
+        for (ExecutorTopology.IoMode mode : ExecutorTopology.IoMode.values()) {
+            ExecutorTopology executors = new ExecutorTopology("test", 1, mode);
+            long start = System.nanoTime();
+            CompletableFuture<?>[] fetches = new CompletableFuture<?>[50];
+            for (int i = 0; i < fetches.length; i++) {
+                fetches[i] = CompletableFuture.runAsync(() -> sleep(100), executors.io());
+            }
+            CompletableFuture.allOf(fetches).join();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            // A task is counted once it returns, after its future completed, so the counts are only final once closed
+            executors.close();
+
+            assertTrue(elapsedMs < 1_000, mode + " took " + elapsedMs + " ms");
+            assertEquals(50, executors.io().completed());
+            assertEquals(0, executors.io().queueDepth());
+            assertEquals(0, executors.io().active());
+            assertTrue(Double.isNaN(executors.io().utilisation()));
+            assertTrue(executors.io().averageConcurrency() > 1, executors.io().toString());
+        }
+    }
+
+    @Test
+    void testIoModeIsLookedUpIgnoringCase() {
+        assertEquals(ExecutorTopology.IoMode.ELASTIC, ExecutorTopology.IoMode.byName("elastic"));
+        assertThrows(IllegalArgumentException.class, () -> ExecutorTopology.IoMode.byName("unknown"));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the condition");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastSelectorTest {
+
+    @Test
+    void testSelectsTheConditionOfASeededRandom() {
+        String[] conditions = SimulatedWeatherClient.WEATHER_CONDITIONS;
+        for (int i = 1; i <= 1_000; i++) {
+            String destination = "Destination_" + i;
+            assertEquals(conditions[new Random(destination.hashCode()).nextInt(conditions.length)],
+                    ForecastSelector.select(destination, conditions), destination);
+        }
+    }
+
+    @Test
+    void testMatchesRandomForBoundsThatAreNotPowersOfTwo() {
+        SplittableRandom seeds = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++) {
+            int seed = seeds.nextInt();
+            int bound = i % 2 == 0 ? seeds.nextInt(1, 100) : seeds.nextInt(1 << 30, Integer.MAX_VALUE);
+            assertEquals(new Random(seed).nextInt(bound), ForecastSelector.indexOf(seed, bound),
+                    "seed " + seed + ", bound " + bound);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForkJoinPageRendererTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @Test
+    void testEveryDestinationIsRenderedOnce() {
+        List<String> destinations = DestinationCatalog.synthetic(1_000);
+        Set<String> rendered = ConcurrentHashMap.newKeySet();
+        ForkJoinPageRenderer renderer = new ForkJoinPageRenderer(pool, 16);
+
+        int count = renderer.render(destinations, destination -> assertTrue(rendered.add(destination)),
+                PageDeadline.after(Duration.ofSeconds(10)));
+
+        assertEquals(destinations.size(), count);
+        assertEquals(Set.copyOf(destinations), rendered);
+    }
+
+    @Test
+    void testBlockedWorkersAreCompensated() {
+        List<String> destinations = DestinationCatalog.synthetic(16);
+        ForkJoinPageRenderer renderer = new ForkJoinPageRenderer(pool, 1);
+
+        long start = System.nanoTime();
+        int count = renderer.render(destinations, destination -> ForkJoinPageRenderer.blocking(() -> sleep(100)),
+                PageDeadline.after(Duration.ofSeconds(10)));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(16, count);
+        // Two workers sleeping in turn would need 800 ms
+        assertTrue(elapsedMs < 600, "Rendering took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testDestinationsAreSkippedAfterTheDeadline() {
+        List<String> destinations = DestinationCatalog.synthetic(100);
+        ForkJoinPageRenderer renderer = new ForkJoinPageRenderer(pool, 10);
+
+        int count = renderer.render(destinations, destination -> sleep(20), PageDeadline.after(Duration.ofMillis(100)));
+
+        assertTrue(count < destinations.size(), "Rendered " + count + " destinations");
+    }
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
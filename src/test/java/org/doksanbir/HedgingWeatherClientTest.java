@@ -0,0 +1,120 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingWeatherClientTest {
+
+    private static final int MIN_SAMPLES = 5;
+
+    @Test
+    void testSlowPrimaryIsHedgedAndCancelled() throws InterruptedException {
+        AtomicBoolean stalling = new AtomicBoolean();
+        AtomicReference<HedgingWeatherClient> hedging = new AtomicReference<>();
+        CountDownLatch primaryCancelled = new CountDownLatch(1);
+        WeatherClient backend = destination -> {
+            // Only the primary runs before the hedge is issued, however short the hedge delay is
+            if (stalling.get() && hedging.get().hedgesIssued() == 0) {
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    primaryCancelled.countDown();
+                    Thread.currentThread().interrupt();
+                }
+                return "Stale";
+            }
+            return "Sunny";
+        };
+
+        try (HedgingWeatherClient client = new HedgingWeatherClient(backend, 0.95, 100, MIN_SAMPLES)) {
+            hedging.set(client);
+            warmUp(client);
+            stalling.set(true);
+
+            assertEquals("Sunny", client.fetchForecast("Destination_1"));
+
+            assertTrue(primaryCancelled.await(5, TimeUnit.SECONDS), "The losing call should be cancelled");
+            assertEquals(MIN_SAMPLES + 1, client.requests());
+            assertEquals(1, client.hedgesIssued());
+            assertEquals(1, client.hedgesWon());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (client.samples() < MIN_SAMPLES + 2 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertEquals(MIN_SAMPLES + 2, client.samples(), "The cancelled primary should be recorded as a latency too");
+        }
+    }
+
+    @Test
+    void testNoHedgeBeforeEnoughSamples() {
+        AtomicInteger calls = new AtomicInteger();
+        WeatherClient backend = destination -> {
+            calls.incrementAndGet();
+            sleepQuietly(20);
+            return "Sunny";
+        };
+
+        try (HedgingWeatherClient client = new HedgingWeatherClient(backend, 0.95, 100, MIN_SAMPLES)) {
+            assertEquals("Sunny", client.fetchForecast("Destination_1"));
+
+            assertEquals(-1, client.hedgeDelayNanos());
+            assertEquals(0, client.hedgesIssued());
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    void testFailureWithoutRunningBackupFailsTheLookup() {
+        AtomicBoolean failing = new AtomicBoolean();
+        WeatherClient backend = destination -> {
+            if (failing.get()) {
+                throw new IllegalStateException("backend down");
+            }
+            return "Sunny";
+        };
+
+        try (HedgingWeatherClient client = new HedgingWeatherClient(backend, 0.95, 100, MIN_SAMPLES)) {
+            warmUp(client);
+            failing.set(true);
+
+            assertThrows(IllegalStateException.class, () -> client.fetchForecast("Destination_1"));
+        }
+    }
+
+    @Test
+    void testCancelledCallsDoNotAdjustTheLimiter() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8);
+        LimitingWeatherClient client = new LimitingWeatherClient(destination -> {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("cancelled");
+        }, limiter);
+
+        assertThrows(IllegalStateException.class, () -> client.fetchForecast("Destination_1"));
+
+        assertTrue(Thread.interrupted());
+        assertEquals(4, limiter.limit());
+        assertEquals(0, limiter.decreases());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    private static void warmUp(HedgingWeatherClient client) {
+        for (int i = 0; i < MIN_SAMPLES; i++) {
+            client.fetchForecast("Destination_" + i);
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
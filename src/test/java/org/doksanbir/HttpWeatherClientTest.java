@@ -0,0 +1,83 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpWeatherClientTest {
+
+    private LocalWeatherServer server;
+    private HttpWeatherClient client;
+
+    @BeforeEach
+    void setUp() {
+        server = new LocalWeatherServer(LatencyDistribution.uniform(Duration.ofMillis(1), Duration.ofMillis(5)), 0.0);
+        client = new HttpWeatherClient(server.baseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void testForecastMatchesSimulatedBackend() {
+        assertEquals(SimulatedWeatherClient.selectForecast("Destination 1"), client.fetchForecast("Destination 1"));
+        assertEquals(1, server.requests());
+    }
+
+    @Test
+    void testBulkForecastsUseOneCall() {
+        List<String> destinations = List.of("Destination_1", "Destination_2", "Destination_3");
+
+        Map<String, String> forecasts = client.fetchForecasts(destinations);
+
+        assertEquals(destinations, List.copyOf(forecasts.keySet()));
+        destinations.forEach(destination ->
+                assertEquals(SimulatedWeatherClient.selectForecast(destination), forecasts.get(destination)));
+        assertEquals(1, server.requests());
+    }
+
+    @Test
+    void testAsyncCallsReuseConnections() {
+        List<CompletableFuture<String>> forecasts = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20; i++) {
+                forecasts.add(client.fetchForecastAsync("Destination_" + i));
+            }
+            CompletableFuture.allOf(forecasts.toArray(CompletableFuture[]::new)).join();
+        }
+
+        assertEquals(60, server.requests());
+        assertTrue(client.connectionCount() <= 20, "Connections should be kept alive and reused");
+    }
+
+    @Test
+    void testBackendErrorsFailTheCall() {
+        try (LocalWeatherServer failingServer = new LocalWeatherServer(LatencyDistribution.none(), 1.0);
+             HttpWeatherClient failingClient = new HttpWeatherClient(failingServer.baseUrl())) {
+            assertThrows(IllegalStateException.class, () -> failingClient.fetchForecast("Destination_1"));
+            CompletableFuture<String> forecast = failingClient.fetchForecastAsync("Destination_1");
+            assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, forecast::join).getCause());
+            assertEquals(2, failingServer.errors());
+        }
+    }
+
+    @Test
+    void testSlowCallsTimeOut() {
+        try (LocalWeatherServer slowServer = new LocalWeatherServer(LatencyDistribution.fixed(Duration.ofSeconds(2)), 0.0);
+             HttpWeatherClient impatientClient = new HttpWeatherClient(slowServer.baseUrl(), Duration.ofMillis(100), false)) {
+            assertThrows(UncheckedIOException.class, () -> impatientClient.fetchForecast("Destination_1"));
+        }
+    }
+}
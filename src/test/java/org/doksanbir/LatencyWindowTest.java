@@ -0,0 +1,42 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyWindowTest {
+
+    @Test
+    void testEmptyWindowHasNoPercentile() {
+        assertEquals(-1, new LatencyWindow(10).percentile(0.95));
+    }
+
+    @Test
+    void testPercentileIsRecomputedEveryIntervalWhileFillingUp() {
+        LatencyWindow window = new LatencyWindow(100);
+        window.record(5);
+        assertEquals(5, window.percentile(0.5));
+
+        for (int i = 0; i < 9; i++) {
+            window.record(1_000);
+        }
+        assertEquals(5, window.percentile(1.0), "Fewer than 10 new samples should be served from the last sort");
+
+        window.record(1_000);
+        assertEquals(1_000, window.percentile(1.0), "The 10th new sample should trigger a new sort");
+        assertEquals(11, window.size());
+    }
+
+    @Test
+    void testOldSamplesAgeOut() {
+        LatencyWindow window = new LatencyWindow(10);
+        for (int i = 0; i < 10; i++) {
+            window.record(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            window.record(1);
+        }
+        assertEquals(1, window.percentile(0.99));
+        assertEquals(10, window.size());
+    }
+}
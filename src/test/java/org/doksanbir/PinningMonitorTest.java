@@ -0,0 +1,45 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void testSleepingInsideSynchronizedIsReportedAtItsCallSite() throws InterruptedException {
+        PinningMonitor monitor = new PinningMonitor(Duration.ZERO);
+        try {
+            Thread.ofVirtual().start(this::sleepWhileHoldingLock).join();
+        } finally {
+            monitor.close();
+        }
+
+        List<PinningMonitor.CallSite> callSites = monitor.callSites();
+        assertFalse(callSites.isEmpty(), "The pinned sleep should be recorded");
+        PinningMonitor.CallSite site = callSites.get(0);
+        assertTrue(site.name().startsWith(PinningMonitorTest.class.getName() + ".sleepWhileHoldingLock:"),
+                "Unexpected call site " + site.name());
+        assertTrue(site.totalNanos() >= Duration.ofMillis(40).toNanos());
+    }
+
+    @Test
+    void testMonitorIsDisabledByDefault() {
+        assertNull(PinningMonitor.startIfEnabled());
+    }
+
+    private void sleepWhileHoldingLock() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
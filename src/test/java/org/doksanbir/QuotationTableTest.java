@@ -0,0 +1,36 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuotationTableTest {
+
+    @Test
+    void testTableMatchesAgencyQuotations() {
+        VirtualThreadTravelAgency agency = new VirtualThreadTravelAgency();
+        for (int destinationId = 0; destinationId < 50; destinationId++) {
+            String destination = "Destination_" + (destinationId + 1);
+            for (int days = 1; days <= QuotationTable.MAX_DAYS; days++) {
+                for (int people = 1; people <= QuotationTable.MAX_PEOPLE; people++) {
+                    assertEquals(agency.getQuotation(destination, days, people),
+                            agency.getQuotation(destinationId, days, people),
+                            destination + ", " + days + " days, " + people + " people");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTripsOutsideTheTableAreRejected() {
+        QuotationTable table = new QuotationTable(List.of("Paris", "Rome"), destination -> 100.0);
+
+        assertEquals(2 * QuotationTable.MAX_DAYS * QuotationTable.MAX_PEOPLE, table.size());
+        assertEquals(100.0 * 10 * 5, table.quotation(1, 10, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.quotation(2, 1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.quotation(0, 11, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.quotation(0, 1, 0));
+    }
+}
@@ -0,0 +1,36 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateMultipliersTest {
+
+    private static double recursiveFib(int n) {
+        if (n <= 1) return n;
+        return recursiveFib(n - 1) + recursiveFib(n - 2);
+    }
+
+    @Test
+    void testTableMatchesFibonacciSequence() {
+        for (int n = 0; n < RateMultipliers.SIZE; n++) {
+            assertEquals(recursiveFib(n), RateMultipliers.fibonacci(n), "Fibonacci number " + n);
+        }
+    }
+
+    @Test
+    void testMultiplierMatchesPreviousCalculation() {
+        for (int i = 1; i <= 50; i++) {
+            String destination = "Destination_" + i;
+            double expected = recursiveFib(Math.abs(destination.hashCode()) % 30);
+            assertEquals(expected, RateMultipliers.forDestination(destination), destination);
+        }
+    }
+
+    @Test
+    void testMinimumHashCodeStaysInRange() {
+        String destination = "polygenelubricants";
+        assertEquals(Integer.MIN_VALUE, destination.hashCode());
+        assertDoesNotThrow(() -> RateMultipliers.forDestination(destination));
+    }
+}
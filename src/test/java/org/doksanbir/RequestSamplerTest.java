@@ -0,0 +1,48 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestSamplerTest {
+
+    @Test
+    void testSamplesStayWithinTheQuotationTable() {
+        RequestSampler sampler = new RequestSampler();
+        boolean[] days = new boolean[QuotationTable.MAX_DAYS + 1];
+        boolean[] people = new boolean[QuotationTable.MAX_PEOPLE + 1];
+        for (int i = 0; i < 10_000; i++) {
+            TravelRequest request = sampler.sample("Destination_1");
+            days[request.days()] = true;
+            people[request.people()] = true;
+        }
+        assertFalse(days[0]);
+        assertFalse(people[0]);
+        for (int i = 1; i < days.length; i++) {
+            assertTrue(days[i], "Never sampled " + i + " days");
+        }
+        for (int i = 1; i < people.length; i++) {
+            assertTrue(people[i], "Never sampled " + i + " people");
+        }
+    }
+
+    @Test
+    void testEveryThreadGetsItsOwnGenerator() throws Exception {
+        RequestSampler sampler = new RequestSampler(7);
+        var otherThread = CompletableFuture.supplyAsync(sampler::generator).get();
+
+        assertSame(sampler.generator(), sampler.generator());
+        assertNotSame(sampler.generator(), otherThread);
+    }
+
+    @Test
+    void testSeededSamplersAreReproducible() {
+        RequestSampler first = new RequestSampler(7);
+        RequestSampler second = new RequestSampler(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.sample("Destination_1"), second.sample("Destination_1"));
+        }
+    }
+}
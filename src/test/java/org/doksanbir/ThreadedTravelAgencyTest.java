@@ -0,0 +1,65 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadedTravelAgencyTest {
+
+    private static final int DESTINATION_COUNT = 5;
+
+    @Test
+    void testStructuredPageCompletes() {
+        ThreadedTravelAgency agency = agency(destination -> "Sunny", PageDeadline.DEFAULT_PAGE_BUDGET);
+
+        assertDoesNotThrow(agency::displayTravelPageStructured);
+        assertEquals(0, agency.degradedCount());
+    }
+
+    @Test
+    void testFailingDestinationIsDegradedWithoutFailingThePage() {
+        ThreadedTravelAgency agency = agency(destination -> {
+            if (destination.equals("Destination_2")) {
+                throw new IllegalStateException("backend down");
+            }
+            return "Sunny";
+        }, PageDeadline.DEFAULT_PAGE_BUDGET);
+
+        assertDoesNotThrow(agency::displayTravelPageStructured);
+        assertEquals(1, agency.degradedCount());
+    }
+
+    @Test
+    void testPageScopeIsShutDownAtTheDeadline() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ThreadedTravelAgency agency = agency(destination -> {
+            if (!destination.equals("Destination_3")) {
+                return "Sunny";
+            }
+            try {
+                Thread.sleep(Duration.ofMinutes(1));
+                return "Sunny";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IllegalStateException(e);
+            }
+        }, Duration.ofMillis(200));
+
+        long start = System.nanoTime();
+        assertDoesNotThrow(agency::displayTravelPageStructured);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(1, agency.degradedCount());
+        assertTrue(elapsedMillis < 5_000, "The page should not wait for the late destination: " + elapsedMillis + " ms");
+        assertTrue(interrupted.await(0, TimeUnit.SECONDS), "The late forecast should be cancelled before the page returns");
+    }
+
+    private static ThreadedTravelAgency agency(WeatherClient weatherClient, Duration pageBudget) {
+        TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), DESTINATION_COUNT, weatherClient);
+        return new ThreadedTravelAgency(engine, pageBudget);
+    }
+}
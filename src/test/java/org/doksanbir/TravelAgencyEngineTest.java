@@ -0,0 +1,106 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelAgencyEngineTest {
+
+    private static final int DESTINATION_COUNT = 20;
+
+    @Test
+    void testGetQuotation() {
+        TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), DESTINATION_COUNT, Duration.ZERO);
+        String destination = "Destination_1";
+        double expectedQuotation = TravelAgencyEngine.BASE_RATE * (1 + engine.getDestinationRateMultiplier(destination)) * 5 * 2;
+        assertEquals(expectedQuotation, engine.getQuotation(destination, 5, 2), 0.001);
+    }
+
+    @Test
+    void testEveryAgencyPricesLikeTheEngine() {
+        TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), DESTINATION_COUNT, Duration.ZERO);
+        List<TravelAgency> agencies = List.of(new ImperativeTravelAgency(), new ThreadedTravelAgency(),
+                new AsyncTravelAgency(), new ParallelTravelAgency(), new AdvancedConcurrentTravelAgency(),
+                new VirtualThreadTravelAgency());
+        for (TravelAgency agency : agencies) {
+            for (int i = 1; i <= DESTINATION_COUNT; i++) {
+                String destination = "Destination_" + i;
+                assertEquals(engine.getQuotation(destination, 3, 2), agency.getQuotation(destination, 3, 2),
+                        agency.getClass().getSimpleName() + " should price " + destination + " like the engine");
+            }
+        }
+    }
+
+    @Test
+    void testGetWeatherForecast() {
+        TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), DESTINATION_COUNT, Duration.ZERO);
+        String weather = engine.getWeatherForecast("Destination_1");
+        assertTrue(Arrays.asList(TravelAgencyEngine.WEATHER_CONDITIONS).contains(weather), "Weather forecast should be valid");
+    }
+
+    @Test
+    void testEveryStrategyRendersTheSamePage() {
+        List<DestinationResult> expected = new TravelAgencyEngine(ExecutionStrategies.sequential(), DESTINATION_COUNT, Duration.ZERO)
+                .renderTravelPage();
+        assertEquals(DESTINATION_COUNT, expected.size());
+
+        for (String name : ExecutionStrategies.NAMES) {
+            try (ExecutionStrategy strategy = ExecutionStrategies.byName(name)) {
+                List<DestinationResult> actual = new TravelAgencyEngine(strategy, DESTINATION_COUNT, Duration.ofMillis(5))
+                        .renderTravelPage();
+                assertEquals(expected, actual, "Strategy " + name + " should render the same page");
+            }
+        }
+    }
+
+    @Test
+    void testLateDestinationsAreDegradedWithinTheBudget() {
+        WeatherClient slowForFirstDestination = destination -> {
+            if (destination.equals("Destination_1")) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "Sunny";
+        };
+        TravelAgencyEngine engine = new TravelAgencyEngine(ExecutionStrategies.sequential(), DESTINATION_COUNT, slowForFirstDestination);
+
+        long start = System.nanoTime();
+        List<DestinationResult> results = engine.renderTravelPage(Duration.ofMillis(300));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertTrue(elapsedMillis < 2_000, "The page should return within its budget, took " + elapsedMillis + " ms");
+        assertEquals(DESTINATION_COUNT, results.size());
+        assertTrue(results.get(0).degraded());
+        assertEquals(DestinationResult.FALLBACK_WEATHER, results.get(0).weather());
+        assertTrue(results.stream().skip(1).noneMatch(DestinationResult::degraded));
+        assertEquals(1, engine.degradedEntries());
+    }
+
+    @Test
+    void testFailureIsPropagated() {
+        for (String name : ExecutionStrategies.NAMES) {
+            try (ExecutionStrategy strategy = ExecutionStrategies.byName(name)) {
+                IllegalStateException failure = assertThrows(IllegalStateException.class,
+                        () -> strategy.executeAll(List.of(1, 2, 3), i -> {
+                            if (i == 2) {
+                                throw new IllegalStateException("boom");
+                            }
+                            return i;
+                        }), "Strategy " + name + " should rethrow the failure");
+                assertEquals("boom", failure.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void testUnknownStrategyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExecutionStrategies.byName("carrier-pigeon"));
+    }
+}
@@ -0,0 +1,136 @@
+package org.doksanbir;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TravelPageSinkTest {
+
+    private static final TravelPage PAGE = new TravelPage(List.of(
+            new DestinationResult("Destination_1", "Sunny", 3, 2, 1234.5),
+            new DestinationResult("Zürich, \"old town\"", DestinationResult.FALLBACK_WEATHER, 1, 1,
+                    DestinationResult.FALLBACK_QUOTATION, true)
+    ));
+
+    @Test
+    void testBinaryPageRoundTrips() throws IOException {
+        byte[] bytes = write(TravelPageSinks.binary(), PAGE);
+
+        TravelPage read = BinaryTravelPageSink.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+
+        assertEquals(PAGE, read);
+    }
+
+    @Test
+    void testLargeBinaryPageSpansSeveralBuffers() throws IOException {
+        List<DestinationResult> destinations = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            destinations.add(new DestinationResult("Destination_" + (i + 1), "Cloudy", i % 10 + 1, i % 5 + 1, i * 1.5));
+        }
+        TravelPage page = new TravelPage(destinations);
+
+        TravelPage read = BinaryTravelPageSink.read(Channels.newChannel(new ByteArrayInputStream(write(TravelPageSinks.binary(), page))));
+
+        assertEquals(page, read);
+    }
+
+    @Test
+    void testCorruptBinaryPageIsRejected() {
+        assertEquals("Invalid number of destinations: -1",
+                assertThrows(IOException.class, () -> read(header(-1))).getMessage());
+        assertThrows(EOFException.class, () -> read(header(Integer.MAX_VALUE)),
+                "A count larger than the page should fail on the missing data, not allocate for it");
+        assertEquals("Invalid string length: " + Integer.MAX_VALUE,
+                assertThrows(IOException.class, () -> read(header(1).putInt(Integer.MAX_VALUE))).getMessage());
+        assertEquals("Invalid string length: -5",
+                assertThrows(IOException.class, () -> read(header(1).putInt(-5))).getMessage());
+    }
+
+    @Test
+    void testBinaryPageRefusesStringsItCannotReadBack() {
+        String longName = "x".repeat(BinaryTravelPageSink.MAX_STRING_BYTES + 1);
+        TravelPage page = new TravelPage(List.of(new DestinationResult(longName, "Sunny", 1, 1, 100.0)));
+
+        assertThrows(IOException.class, () -> write(TravelPageSinks.binary(), page));
+    }
+
+    @Test
+    void testCsvQuotesFieldsAndLeavesMissingQuotationEmpty() throws IOException {
+        String csv = new String(write(TravelPageSinks.csv(), PAGE), StandardCharsets.UTF_8);
+
+        assertEquals(CsvTravelPageSink.HEADER
+                + "Destination_1,Sunny,3,2,1234.5,false\n"
+                + "\"Zürich, \"\"old town\"\"\",Unavailable,1,1,,true\n", csv);
+    }
+
+    @Test
+    void testJsonEscapesStringsAndWritesMissingQuotationAsNull() throws IOException {
+        String json = new String(write(TravelPageSinks.json(), PAGE), StandardCharsets.UTF_8);
+
+        assertEquals("{\"destinations\":[\n"
+                + "{\"destination\":\"Destination_1\",\"weather\":\"Sunny\",\"days\":3,\"people\":2,\"quotation\":1234.5,\"degraded\":false},\n"
+                + "{\"destination\":\"Zürich, \\\"old town\\\"\",\"weather\":\"Unavailable\",\"days\":1,\"people\":1,\"quotation\":null,\"degraded\":true}\n"
+                + "]}\n", json);
+    }
+
+    @Test
+    void testEmptyJsonPageIsAValidDocument() throws IOException {
+        String json = new String(write(TravelPageSinks.json(), new TravelPage(List.of())), StandardCharsets.UTF_8);
+
+        assertEquals("{\"destinations\":[\n]}\n", json);
+    }
+
+    @Test
+    void testStreamedBinaryPageRoundTrips(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("page.bin");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             TravelPageSink.DestinationWriter writer = TravelPageSinks.binary().open(channel)) {
+            for (DestinationResult destination : PAGE.destinations()) {
+                writer.write(destination);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(path)) {
+            assertEquals(PAGE, BinaryTravelPageSink.read(channel));
+        }
+    }
+
+    @Test
+    void testStreamedBinaryPageNeedsASeekableChannel() {
+        assertThrows(IOException.class, () -> TravelPageSinks.binary().open(Channels.newChannel(new ByteArrayOutputStream())));
+    }
+
+    @Test
+    void testUnknownFormatIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TravelPageSinks.byName("xml"));
+    }
+
+    private static byte[] write(TravelPageSink sink, TravelPage page) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sink.write(page, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static ByteBuffer header(int count) {
+        return ByteBuffer.allocate(64).putInt(BinaryTravelPageSink.MAGIC).putInt(BinaryTravelPageSink.VERSION).putInt(count);
+    }
+
+    private static TravelPage read(ByteBuffer page) throws IOException {
+        return BinaryTravelPageSink.read(Channels.newChannel(
+                new ByteArrayInputStream(page.array(), 0, page.position())));
+    }
+}